@@ -20,15 +20,16 @@ package com.jgaap.backend;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.FutureTask;
 
 import org.apache.log4j.Logger;
 
@@ -37,6 +38,7 @@ import com.jgaap.generics.AnalysisDriver;
 import com.jgaap.generics.AnalyzeException;
 import com.jgaap.generics.CanonicizationException;
 import com.jgaap.generics.Canonicizer;
+import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.generics.EventCuller;
 import com.jgaap.generics.EventCullingException;
@@ -44,13 +46,19 @@ import com.jgaap.generics.EventDriver;
 import com.jgaap.generics.EventGenerationException;
 import com.jgaap.generics.Language;
 import com.jgaap.generics.LanguageParsingException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.NeighborAnalysisDriver;
 import com.jgaap.generics.NonDistanceDependentAnalysisDriver;
 import com.jgaap.generics.ValidationDriver;
-import com.jgaap.generics.WEKAAnalysisDriver;
 import com.jgaap.languages.English;
+import com.jgaap.util.CanonicizationPlan;
+import com.jgaap.util.DistanceMatrix;
 import com.jgaap.util.Document;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
+import com.jgaap.util.MemoryBudget;
+import com.jgaap.util.PreprocessingCache;
+import com.jgaap.util.WorkPool;
 
 /**
  * 
@@ -88,7 +96,11 @@ public class API {
 	private List<EventDriver> eventDrivers;
 	private List<EventCuller> eventCullers;
 	private List<AnalysisDriver> analysisDrivers;	
-	private ExecutorService executor;
+	private WorkPool workPool;
+	private DistanceMatrix distanceMatrix;
+	private MemoryBudget.Account memoryAccount;
+	private MemoryBudget.Account memory;
+	private long memoryPeak;
 
 	private static final API INSTANCE = new API();
 	
@@ -616,61 +628,31 @@ public class API {
 	 * @throws Exception
 	 */
 	private void loadCanonicizeEventify() throws Exception{
+		CompletionService<Document> completionService = new ExecutorCompletionService<Document>(workPool.getLoadingExecutor());
 		List<Future<Document>> documentsProcessing = new ArrayList<Future<Document>>(documents.size());
-		for(final Document document : documents){
-			Callable<Document> work = new Callable<Document>() {
-				@Override
-				public Document call() throws Exception {
-					try {
-						document.setLanguage(language);
-						document.load();
-						document.processCanonicizers();
-						for (EventDriver eventDriver : eventDrivers) {
-							char[] text = document.getText();
-							for(Canonicizer canonicizer : eventDriver.getCanonicizers()){
-								text = canonicizer.process(text);
-							}
-							try{
-								document.addEventSet(eventDriver,eventDriver.createEventSet(text));
-							} catch (EventGenerationException e) {
-								logger.error("Could not Eventify with "+eventDriver.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
-								throw new Exception("Could not Eventify with "+eventDriver.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
-							}
-						}
-						document.setText("");
-					} catch (LanguageParsingException e) {
-						logger.fatal("Could not Parse Language: "+language.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
-						document.failed();
-					} catch (CanonicizationException e) {
-						logger.fatal("Could not Canonicize File: "+document.getFilePath()+" Title:"+document.getTitle(),e);
-						document.failed();
-					} catch (Exception e) {
-						logger.fatal("Could not load File: "+document.getFilePath()+" Title:"+document.getTitle(),e);
-						document.failed();
-					}
-					return document;
-				}
-			};
-			documentsProcessing.add(executor.submit(work));
+		for(Document document : documents){
+			documentsProcessing.add(completionService.submit(new LoadingWorker(document, 0)));
 		}
 
-		while(true){
-			if(documentsProcessing.size()==0){
-				break;
-			}else {
-				Iterator<Future<Document>> documentIterator = documentsProcessing.iterator();
-				while(documentIterator.hasNext()){
-					Future<Document> futureDocument = documentIterator.next();
-					if(futureDocument.isDone()){
-						Document document = futureDocument.get();
-						if(document.hasFailed()){
-							throw new Exception("One or more documents could not be read / parsed / canonicized Experiment Failed");
-						}
-						logger.info("Document: "+document.getTitle()+" has finished processing.");
-						documentIterator.remove();
-					}
+		try {
+			for(int i = 0; i < documentsProcessing.size(); i++){
+				Document document = WorkPool.take(completionService).get();
+				if(document.hasFailed()){
+					throw new Exception("One or more documents could not be read / parsed / canonicized Experiment Failed");
 				}
+				logger.info("Document: "+document.getTitle()+" has finished processing.");
 			}
+		} finally {
+			cancel(documentsProcessing);
+		}
+	}
+	
+	/**
+	 * Stops whatever is still queued or running once a stage has given up, does nothing to finished work
+	 */
+	private static void cancel(List<? extends Future<?>> futures) {
+		for(Future<?> future : futures){
+			future.cancel(true);
 		}
 	}
 	
@@ -681,22 +663,20 @@ public class API {
 	 * @throws InterruptedException 
 	 */
 	private void cull() throws EventCullingException, InterruptedException, ExecutionException {
+		CompletionService<EventDriver> completionService = new ExecutorCompletionService<EventDriver>(workPool.getPool());
 		List<Future<EventDriver>> futureEventDrivers = new ArrayList<Future<EventDriver>>();
 		for (EventDriver eventDriver : eventDrivers) {
 			if (!eventDriver.getEventCullers().isEmpty()) {
-				futureEventDrivers.add(executor.submit(new Culling(eventDriver)));
+				futureEventDrivers.add(completionService.submit(new Culling(eventDriver)));
 			}
 		}
-		while(futureEventDrivers.size() != 0) {
-			Iterator<Future<EventDriver>> iterator = futureEventDrivers.iterator();
-			while(iterator.hasNext()) {
-				Future<EventDriver> futureEventDriver = iterator.next();
-				if(futureEventDriver.isDone()){
-					EventDriver eventDriver = futureEventDriver.get();
-					logger.info("Finished Culling "+eventDriver.displayName());
-					iterator.remove();
-				}
+		try {
+			for(int i = 0; i < futureEventDrivers.size(); i++) {
+				EventDriver eventDriver = WorkPool.take(completionService).get();
+				logger.info("Finished Culling "+eventDriver.displayName());
 			}
+		} finally {
+			cancel(futureEventDrivers);
 		}
 	}
 
@@ -714,86 +694,242 @@ public class API {
 			}
 		}
 		for (AnalysisDriver analysisDriver : analysisDrivers) {
-			List<Future<Document>> futureDocuments = new ArrayList<Future<Document>>();
-			if(analysisDriver instanceof ValidationDriver) { //For some reason, if we unify ValidationDriver and LeaveOneOutNoDistanceDriver into the same if statement, it doesn't work.
-				for (Document knownDocument : knownDocuments) {
-					List<Document> knownDocuments2 = new ArrayList<Document>();
-					for(Document knownDocument2 : knownDocuments){
-//This is messy and time-consuming, but setting knownDocuments2 = knownDocuments and then removing knownDocument from knownDocuments2 doesn't work, not sure why.
-						if(!knownDocument2.equals(knownDocument))
-							knownDocuments2.add(knownDocument2);
-					}
-					logger.info("Training " + analysisDriver.displayName());
-					analysisDriver.train(knownDocuments2);
-					logger.info("Finished Training "+analysisDriver.displayName());
-					futureDocuments.add(executor.submit(new AnalysisWorker(knownDocument, analysisDriver)));	
-				//await analysis to finish
-					while(futureDocuments.size() != 0){
-						Iterator<Future<Document>> iterator = futureDocuments.iterator();
-						while(iterator.hasNext()) {
-							Future<Document> futureDocument = iterator.next();
-							if(futureDocument.isDone()) {
-								iterator.remove();
-							}
-						}
-				
-					}
+			analyze(analysisDriver, knownDocuments, unknownDocuments);
+		}
+	}
+
+	/**
+	 * Runs one AnalysisDriver once every Document has been loaded and culled
+	 */
+	private void analyze(AnalysisDriver analysisDriver, List<Document> knownDocuments, List<Document> unknownDocuments) throws AnalyzeException {
+		CompletionService<Document> completionService = new ExecutorCompletionService<Document>(workPool.getPool());
+		List<Future<Document>> futureDocuments = new ArrayList<Future<Document>>();
+		memory.charge(MemoryBudget.estimateModel(knownDocuments));
+		if(analysisDriver instanceof NeighborAnalysisDriver) {
+			((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(distanceMatrix);
+		}
+		if(analysisDriver instanceof LeaveOneOutCapable && (analysisDriver instanceof ValidationDriver || analysisDriver instanceof LeaveOneOutNoDistanceDriver)) {
+			// trained once on every known, each known is then analyzed with itself taken out
+			logger.info("Training " + analysisDriver.displayName());
+			analysisDriver.train(knownDocuments);
+			logger.info("Finished Training "+analysisDriver.displayName());
+			if(analysisDriver instanceof ValidationDriver) {
+				fillDistanceMatrix(analysisDriver, knownDocuments, knownDocuments);
+			}
+			for (Document knownDocument : knownDocuments) {
+				futureDocuments.add(completionService.submit(new AnalysisWorker(knownDocument, analysisDriver, true)));
+			}
+			await(completionService, futureDocuments, analysisDriver);
+		} else if(analysisDriver instanceof ValidationDriver || analysisDriver instanceof LeaveOneOutNoDistanceDriver) {
+			// each fold trains its own copy of the driver, so the folds run side by side
+			if(analysisDriver instanceof ValidationDriver) {
+				fillDistanceMatrix(analysisDriver, knownDocuments, knownDocuments);
+			}
+			for (Document knownDocument : knownDocuments) {
+				futureDocuments.add(completionService.submit(new FoldWorker(knownDocuments, knownDocument, analysisDriver)));
+			}
+			await(completionService, futureDocuments, analysisDriver);
+		} else {
+			logger.info("Training " + analysisDriver.displayName());
+			analysisDriver.train(knownDocuments);
+			logger.info("Finished Training "+analysisDriver.displayName());
+			fillDistanceMatrix(analysisDriver, unknownDocuments, knownDocuments);
+			for (Document unknownDocument : unknownDocuments) {
+				futureDocuments.add(completionService.submit(new AnalysisWorker(unknownDocument, analysisDriver)));
+			}
+			//await analysis to finish
+			await(completionService, futureDocuments, analysisDriver);
+		}
+		logger.info("Finished Analysis with "+analysisDriver.displayName());
+	}
+
+	/**
+	 * Runs the stages as a dependency graph instead of one after the other.
+	 * The known Documents are loaded first and the AnalysisDrivers are trained as soon as they are all in,
+	 * meanwhile the unknown Documents are loaded and each is analyzed once both it and the trained drivers are ready.
+	 * No more than twice the pool's parallelism unknowns are let ahead of their analysis.
+	 * A Document is only let in while its estimated size fits the MemoryBudget, or when nothing else is loading.
+	 * Drivers that validate over the knowns run afterwards as in analyze.
+	 * Only used when there are no EventCullers, whose statistics need every Document.
+	 */
+	private void pipeline() throws Exception {
+		final List<Document> knownDocuments = new ArrayList<Document>();
+		List<Document> unknownDocuments = new ArrayList<Document>();
+		for (Document document : documents) {
+			if (document.isAuthorKnown()) {
+				knownDocuments.add(document);
+			} else {
+				unknownDocuments.add(document);
+			}
+		}
+		final List<AnalysisDriver> scoringDrivers = new ArrayList<AnalysisDriver>();
+		List<AnalysisDriver> laterDrivers = new ArrayList<AnalysisDriver>();
+		for (AnalysisDriver analysisDriver : analysisDrivers) {
+			if (analysisDriver instanceof ValidationDriver || analysisDriver instanceof LeaveOneOutNoDistanceDriver) {
+				laterDrivers.add(analysisDriver);
+			} else {
+				if (analysisDriver instanceof NeighborAnalysisDriver) {
+					((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(distanceMatrix);
 				}
-			} else if(analysisDriver instanceof LeaveOneOutNoDistanceDriver) {
-				for (Document knownDocument : knownDocuments) {
-					List<Document> knownDocuments2 = new ArrayList<Document>();
-					for(Document knownDocument2 : knownDocuments){
-//This is messy and time-consuming, but setting knownDocuments2 = knownDocuments and then removing knownDocument from knownDocuments2 doesn't work, not sure why.
-						if(!knownDocument2.equals(knownDocument))
-							knownDocuments2.add(knownDocument2);
-					} 
+				scoringDrivers.add(analysisDriver);
+			}
+		}
+		FutureTask<Void> training = new FutureTask<Void>(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				memory.charge(scoringDrivers.size() * MemoryBudget.estimateModel(knownDocuments));
+				for (AnalysisDriver analysisDriver : scoringDrivers) {
 					logger.info("Training " + analysisDriver.displayName());
-					analysisDriver.train(knownDocuments2);
+					analysisDriver.train(knownDocuments);
 					logger.info("Finished Training "+analysisDriver.displayName());
-					futureDocuments.add(executor.submit(new AnalysisWorker(knownDocument, analysisDriver)));
-					//await analysis to finish
-					while(futureDocuments.size() != 0){
-						Iterator<Future<Document>> iterator = futureDocuments.iterator();
-						while(iterator.hasNext()) {
-							Future<Document> futureDocument = iterator.next();
-							if(futureDocument.isDone()) {
-								iterator.remove();
-							}
-						}
-					
-					}
 				}
-				
-			} else if (analysisDriver instanceof WEKAAnalysisDriver){
-				logger.info("Training " + analysisDriver.displayName());
-				analysisDriver.train(knownDocuments);
-				logger.info("Finished Training "+analysisDriver.displayName());
-				for (Document unknownDocument : unknownDocuments){
-					logger.info("Begining Analyzing: " + unknownDocument.toString());
-					unknownDocument.addResult(analysisDriver, analysisDriver.analyze(unknownDocument));
-					logger.info("Finished Analyzing: "+unknownDocument.toString());
+				return null;
+			}
+		});
+		CompletionService<Document> loadingService = new ExecutorCompletionService<Document>(workPool.getLoadingExecutor());
+		List<Future<Document>> knownsProcessing = new ArrayList<Future<Document>>(knownDocuments.size());
+		CompletionService<Document> scoringService = new ExecutorCompletionService<Document>(workPool.getPool());
+		List<Future<Document>> unknownsProcessing = new ArrayList<Future<Document>>(unknownDocuments.size());
+		int nextKnown = 0;
+		int nextUnknown = 0;
+		int loading = 0;
+		int scoring = 0;
+		try {
+			nextKnown = admit(knownDocuments, nextKnown, loading, knownDocuments.size(), loadingService, knownsProcessing, null, null);
+			loading = nextKnown;
+			nextUnknown = admit(unknownDocuments, nextUnknown, scoring, 2 * workPool.getParallelism(), scoringService, unknownsProcessing, training, scoringDrivers);
+			scoring = nextUnknown;
+			while (loading > 0) {
+				Document document = WorkPool.take(loadingService).get();
+				loading--;
+				if (document.hasFailed()) {
+					throw new Exception("One or more documents could not be read / parsed / canonicized Experiment Failed");
 				}
-			} else {
-				logger.info("Training " + analysisDriver.displayName());
-				analysisDriver.train(knownDocuments);
-				logger.info("Finished Training "+analysisDriver.displayName());
-				for (Document unknownDocument : unknownDocuments) {
-					futureDocuments.add(executor.submit(new AnalysisWorker(unknownDocument, analysisDriver)));
+				logger.info("Document: "+document.getTitle()+" has finished processing.");
+				int admitted = admit(knownDocuments, nextKnown, loading, knownDocuments.size(), loadingService, knownsProcessing, null, null);
+				loading += admitted - nextKnown;
+				nextKnown = admitted;
+			}
+			training.run();
+			try {
+				training.get();
+			} catch (ExecutionException e) {
+				logger.error("Training failed", e.getCause());
+				throw new AnalyzeException("Training failed");
+			}
+			for (int i = 0; i < unknownDocuments.size(); i++) {
+				Document document;
+				try {
+					document = WorkPool.take(scoringService).get();
+				} catch (ExecutionException e) {
+					logger.error("Analysis failed", e.getCause());
+					throw new AnalyzeException("Analysis failed");
 				}
-				//await analysis to finish
-				while(futureDocuments.size() != 0){
-					Iterator<Future<Document>> iterator = futureDocuments.iterator();
-					while(iterator.hasNext()) {
-						Future<Document> futureDocument = iterator.next();
-						if(futureDocument.isDone()) {
-							iterator.remove();
-						}
-					}
-				
+				scoring--;
+				if (document.hasFailed()) {
+					throw new Exception("One or more documents could not be read / parsed / canonicized Experiment Failed");
 				}
+				int admitted = admit(unknownDocuments, nextUnknown, scoring, 2 * workPool.getParallelism(), scoringService, unknownsProcessing, training, scoringDrivers);
+				scoring += admitted - nextUnknown;
+				nextUnknown = admitted;
+				logger.info("Document: "+document.getTitle()+" has finished processing.");
 			}
+		} finally {
+			training.cancel(true);
+			cancel(knownsProcessing);
+			cancel(unknownsProcessing);
+		}
+		for (AnalysisDriver analysisDriver : scoringDrivers) {
 			logger.info("Finished Analysis with "+analysisDriver.displayName());
 		}
+		for (AnalysisDriver analysisDriver : laterDrivers) {
+			if (analysisDriver instanceof NeighborAnalysisDriver) {
+				((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(distanceMatrix);
+			}
+			analyze(analysisDriver, knownDocuments, unknownDocuments);
+		}
+	}
+
+	/**
+	 * Submits documents from next on while fewer than window are in flight and their estimated size fits the MemoryBudget.
+	 * With nothing in flight one is submitted regardless, so a run never waits on memory held by others.
+	 * Known documents are only loaded, unknown ones are scored once training has finished.
+	 * @return the index of the first document not submitted
+	 */
+	private int admit(List<Document> documents, int next, int inFlight, int window, CompletionService<Document> completionService,
+			List<Future<Document>> futures, Future<Void> training, List<AnalysisDriver> scoringDrivers) {
+		while (next < documents.size() && inFlight < window) {
+			Document document = documents.get(next);
+			long bytes = MemoryBudget.estimateLoad(document, eventDrivers.size());
+			if (inFlight == 0) {
+				memory.charge(bytes);
+			} else if (!memory.tryCharge(bytes)) {
+				break;
+			}
+			if (training == null) {
+				futures.add(completionService.submit(new LoadingWorker(document, bytes)));
+			} else {
+				futures.add(completionService.submit(new ScoringWorker(document, bytes, training, scoringDrivers)));
+			}
+			next++;
+			inFlight++;
+		}
+		return next;
+	}
+
+	/**
+	 * Blocks until every AnalysisWorker submitted to completionService has finished.
+	 * The first one to fail cancels the others and fails the analysis.
+	 * futureDocuments is emptied so the caller can submit the next batch.
+	 */
+	private void await(CompletionService<Document> completionService, List<Future<Document>> futureDocuments, AnalysisDriver analysisDriver) throws AnalyzeException {
+		try {
+			for(int i = 0; i < futureDocuments.size(); i++){
+				WorkPool.take(completionService).get();
+			}
+		} catch (ExecutionException e) {
+			logger.error("Analysis with "+analysisDriver.displayName()+" failed", e.getCause());
+			throw new AnalyzeException("Analysis with "+analysisDriver.displayName()+" failed");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Analysis with "+analysisDriver.displayName()+" was interrupted");
+		} finally {
+			cancel(futureDocuments);
+			futureDocuments.clear();
+		}
+	}
+
+	/**
+	 * Computes every distance a NeighborAnalysisDriver will ask for in one blocked parallel pass
+	 * so that its AnalysisWorkers (and any later driver using the same distance) only read them.
+	 */
+	private void fillDistanceMatrix(AnalysisDriver analysisDriver, List<Document> unknownDocuments, List<Document> knownDocuments) throws AnalyzeException {
+		if(analysisDriver instanceof NeighborAnalysisDriver && ((NeighborAnalysisDriver) analysisDriver).usesDistanceMatrix()) {
+			DistanceFunction distance = ((NeighborAnalysisDriver) analysisDriver).getDistanceFunction();
+			logger.info("Computing "+unknownDocuments.size()+"x"+knownDocuments.size()+" "+distance.displayName()+" distances");
+			try {
+				distanceMatrix.compute(unknownDocuments, knownDocuments, distance);
+			} catch (DistanceCalculationException e) {
+				logger.error("Distance "+distance.displayName()+" failed", e);
+				throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+			}
+		}
+	}
+
+	/**
+	 * Charges what execute loads and trains to account instead of an account of its own,
+	 * for callers that reserved memory for the run up front
+	 * @param account the account, or null to open one per run on the shared MemoryBudget
+	 */
+	public void setMemoryAccount(MemoryBudget.Account account) {
+		memoryAccount = account;
+	}
+
+	/**
+	 * @return the most bytes the last execute was estimated to hold at once
+	 */
+	public long getMemoryPeak() {
+		return memoryPeak;
 	}
 
 	/**
@@ -802,12 +938,110 @@ public class API {
 	 */
 	public void execute() throws Exception {
 		clearData();
-		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-		loadCanonicizeEventify();
-		cull();
-		analyze();
-		executor.shutdown();
-		executor.awaitTermination(5, TimeUnit.SECONDS);
+		workPool = WorkPool.getShared();
+		distanceMatrix = new DistanceMatrix(workPool.getPool());
+		memory = memoryAccount != null ? memoryAccount : MemoryBudget.getShared().open(0);
+		try {
+			if (hasEventCullers()) {
+				loadCanonicizeEventify();
+				cull();
+				analyze();
+			} else {
+				pipeline();
+			}
+		} finally {
+			for (AnalysisDriver analysisDriver : analysisDrivers) {
+				if (analysisDriver instanceof NeighborAnalysisDriver) {
+					((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(null);
+				}
+			}
+			distanceMatrix = null;
+			memoryPeak = memory.getPeak();
+			logger.info("Memory: "+memory+", budget "+MemoryBudget.getShared());
+			if (memoryAccount == null) {
+				memory.close();
+			}
+		}
+		logger.info("Work pool: "+workPool);
+		logger.info("Preprocessing cache: "+PreprocessingCache.getShared());
+	}
+	
+	/**
+	 * Stratified k-fold cross validation of every AnalysisDriver over the known Documents.
+	 * The Documents are loaded, eventified and culled once and the known by known distances
+	 * are computed once per distance, every fold then trains a copy of the driver on the
+	 * other folds and attributes its own Documents. The folds of a driver run in parallel.
+	 * Leave one out drivers validate themselves and are skipped.
+	 * @param folds the number of folds
+	 * @param seed for the random split, the same seed gives the same folds
+	 * @return a CrossValidation per AnalysisDriver validated
+	 * @throws Exception
+	 */
+	public List<CrossValidation> crossValidate(int folds, long seed) throws Exception {
+		clearData();
+		workPool = WorkPool.getShared();
+		distanceMatrix = new DistanceMatrix(workPool.getPool());
+		memory = memoryAccount != null ? memoryAccount : MemoryBudget.getShared().open(0);
+		List<CrossValidation> crossValidations = new ArrayList<CrossValidation>();
+		try {
+			loadCanonicizeEventify();
+			if (hasEventCullers()) {
+				cull();
+			}
+			List<Document> knownDocuments = getKnownDocuments();
+			List<List<Document>> foldDocuments = CrossValidation.stratify(knownDocuments, folds, new Random(seed));
+			Set<String> authors = new HashSet<String>(getAuthors());
+			for (AnalysisDriver analysisDriver : analysisDrivers) {
+				if (analysisDriver instanceof ValidationDriver || analysisDriver instanceof LeaveOneOutNoDistanceDriver) {
+					logger.info("Skipping "+analysisDriver.displayName()+" which validates itself");
+					continue;
+				}
+				memory.charge(Math.min(folds, workPool.getParallelism()) * MemoryBudget.estimateModel(knownDocuments));
+				if (analysisDriver instanceof NeighborAnalysisDriver) {
+					((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(distanceMatrix);
+				}
+				fillDistanceMatrix(analysisDriver, knownDocuments, knownDocuments);
+				CrossValidation crossValidation = new CrossValidation(analysisDriver.displayName(), folds);
+				CompletionService<Integer> completionService = new ExecutorCompletionService<Integer>(workPool.getPool());
+				List<Future<Integer>> futureFolds = new ArrayList<Future<Integer>>(folds);
+				for (int fold = 0; fold < folds; fold++) {
+					futureFolds.add(completionService.submit(new CrossValidationWorker(foldDocuments, fold, analysisDriver, authors, crossValidation)));
+				}
+				try {
+					for (int i = 0; i < futureFolds.size(); i++) {
+						int fold = WorkPool.take(completionService).get();
+						logger.info("Finished fold "+(fold+1)+" of "+analysisDriver.displayName());
+					}
+				} catch (ExecutionException e) {
+					logger.error("Cross validation of "+analysisDriver.displayName()+" failed", e.getCause());
+					throw new AnalyzeException("Cross validation of "+analysisDriver.displayName()+" failed");
+				} finally {
+					cancel(futureFolds);
+				}
+				crossValidations.add(crossValidation);
+			}
+		} finally {
+			for (AnalysisDriver analysisDriver : analysisDrivers) {
+				if (analysisDriver instanceof NeighborAnalysisDriver) {
+					((NeighborAnalysisDriver) analysisDriver).setDistanceMatrix(null);
+				}
+			}
+			distanceMatrix = null;
+			memoryPeak = memory.getPeak();
+			if (memoryAccount == null) {
+				memory.close();
+			}
+		}
+		return crossValidations;
+	}
+	
+	private boolean hasEventCullers() {
+		for (EventDriver eventDriver : eventDrivers) {
+			if (!eventDriver.getEventCullers().isEmpty()) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -831,7 +1065,6 @@ public class API {
 	
 	private class Culling implements Callable<EventDriver> {
 		private EventDriver eventDriver;
-		private ExecutorService cullingExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
 		
 		Culling(EventDriver eventDriver) {
 			this.eventDriver = eventDriver;
@@ -847,14 +1080,17 @@ public class API {
 				culler.init(eventSets);
 				List<Future<EventSet>> futureEventSets = new ArrayList<Future<EventSet>>(eventSets.size());
 				for(EventSet eventSet : eventSets) {
-					futureEventSets.add(cullingExecutor.submit(new CullerWorker(eventSet, culler)));
+					futureEventSets.add(workPool.getPool().submit(new CullerWorker(eventSet, culler)));
 				}
 				eventSets.clear();
-				for(Future<EventSet> futureEventSet : futureEventSets) {
-					eventSets.add(futureEventSet.get());
+				try {
+					for(Future<EventSet> futureEventSet : futureEventSets) {
+						eventSets.add(WorkPool.get(futureEventSet));
+					}
+				} finally {
+					cancel(futureEventSets);
 				}
 			}
-			cullingExecutor.shutdown();
 			for(int i = 0; i < documents.size(); i++) {
 				documents.get(i).addEventSet(eventDriver, eventSets.get(i));
 			}
@@ -862,6 +1098,108 @@ public class API {
 		}
 	}
 	
+	private class LoadingWorker implements Callable<Document> {
+		private Document document;
+		private long admitted;
+		
+		/**
+		 * @param admitted the bytes already charged for document before it was loaded
+		 */
+		LoadingWorker(Document document, long admitted) {
+			this.document = document;
+			this.admitted = admitted;
+		}
+		
+		@Override
+		public Document call() throws Exception {
+			try {
+				document.setLanguage(language);
+				document.load();
+				PreprocessingCache cache = PreprocessingCache.getShared();
+				String textKey = PreprocessingCache.textKey(PreprocessingCache.digest(document.getText()), language, document.getCanonicizers());
+				List<EventDriver> uncachedEventDrivers = new ArrayList<EventDriver>();
+				for (EventDriver eventDriver : eventDrivers) {
+					EventSet eventSet = cache.getEventSet(PreprocessingCache.eventSetKey(textKey, eventDriver), eventDriver);
+					if (eventSet != null) {
+						document.addEventSet(eventDriver, eventSet);
+					} else {
+						uncachedEventDrivers.add(eventDriver);
+					}
+				}
+				if (uncachedEventDrivers.isEmpty()) {
+					document.setText("");
+					memory.charge(MemoryBudget.estimate(document) - admitted);
+					return document;
+				}
+				char[] cachedText = cache.getText(textKey);
+				if (cachedText != null) {
+					document.setText(new String(cachedText));
+				} else {
+					document.processCanonicizers();
+					cache.putText(textKey, document.getText());
+				}
+				// chains shared by several EventDrivers are canonicized once
+				Map<EventDriver, char[]> texts = new CanonicizationPlan(uncachedEventDrivers).apply(document.getText());
+				for (EventDriver eventDriver : uncachedEventDrivers) {
+					char[] text = texts.remove(eventDriver);
+					try{
+						EventSet eventSet = eventDriver.createEventSet(text);
+						cache.putEventSet(PreprocessingCache.eventSetKey(textKey, eventDriver), eventDriver, eventSet);
+						if(eventSet.getClass() == EventSet.class) {
+							eventSet = IndexedEventSet.of(eventSet, eventDriver.getEventDictionary());
+						}
+						document.addEventSet(eventDriver, eventSet);
+					} catch (EventGenerationException e) {
+						logger.error("Could not Eventify with "+eventDriver.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
+						throw new Exception("Could not Eventify with "+eventDriver.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
+					}
+				}
+				document.setText("");
+				memory.charge(MemoryBudget.estimate(document) - admitted);
+			} catch (LanguageParsingException e) {
+				logger.fatal("Could not Parse Language: "+language.displayName()+" on File:"+document.getFilePath()+" Title:"+document.getTitle(),e);
+				document.failed();
+			} catch (CanonicizationException e) {
+				logger.fatal("Could not Canonicize File: "+document.getFilePath()+" Title:"+document.getTitle(),e);
+				document.failed();
+			} catch (Exception e) {
+				logger.fatal("Could not load File: "+document.getFilePath()+" Title:"+document.getTitle(),e);
+				document.failed();
+			}
+			return document;
+		}
+	}
+	
+	/**
+	 * Loads an unknown Document and, once the drivers are trained, analyzes it with each of them
+	 */
+	private class ScoringWorker implements Callable<Document> {
+		private Document document;
+		private long admitted;
+		private Future<Void> training;
+		private List<AnalysisDriver> scoringDrivers;
+		
+		ScoringWorker(Document document, long admitted, Future<Void> training, List<AnalysisDriver> scoringDrivers) {
+			this.document = document;
+			this.admitted = admitted;
+			this.training = training;
+			this.scoringDrivers = scoringDrivers;
+		}
+		
+		@Override
+		public Document call() throws Exception {
+			workPool.load(new LoadingWorker(document, admitted));
+			if (document.hasFailed()) {
+				return document;
+			}
+			WorkPool.get(training);
+			for (AnalysisDriver analysisDriver : scoringDrivers) {
+				new AnalysisWorker(document, analysisDriver).call();
+			}
+			return document;
+		}
+	}
+	
 	private class CullerWorker implements Callable<EventSet> {
 		private EventSet eventSet;
 		private EventCuller culler;
@@ -876,19 +1214,99 @@ public class API {
 		}
 	}
 	
+	/**
+	 * Trains a copy of a leave one out driver on every known Document but one and analyzes the one left out
+	 */
+	private class FoldWorker implements Callable<Document> {
+		private List<Document> knownDocuments;
+		private Document heldOut;
+		private AnalysisDriver analysisDriver;
+		
+		FoldWorker(List<Document> knownDocuments, Document heldOut, AnalysisDriver analysisDriver) {
+			this.knownDocuments = knownDocuments;
+			this.heldOut = heldOut;
+			this.analysisDriver = analysisDriver;
+		}
+		
+		@Override
+		public Document call() throws Exception {
+			List<Document> others = new ArrayList<Document>(knownDocuments.size());
+			for (Document knownDocument : knownDocuments) {
+				if (!knownDocument.equals(heldOut))
+					others.add(knownDocument);
+			}
+			AnalysisDriver fold = AnalysisDrivers.copy(analysisDriver);
+			logger.info("Training " + fold.displayName() + " without " + heldOut.getTitle());
+			fold.train(others);
+			heldOut.addResult(analysisDriver, fold.analyze(heldOut));
+			logger.info("Finished Analyzing: " + heldOut.toString());
+			return heldOut;
+		}
+	}
+	
+	/**
+	 * Trains a copy of a driver on every fold but one and attributes the Documents of that fold
+	 */
+	private class CrossValidationWorker implements Callable<Integer> {
+		private List<List<Document>> foldDocuments;
+		private int fold;
+		private AnalysisDriver analysisDriver;
+		private Set<String> authors;
+		private CrossValidation crossValidation;
+		
+		CrossValidationWorker(List<List<Document>> foldDocuments, int fold, AnalysisDriver analysisDriver, Set<String> authors, CrossValidation crossValidation) {
+			this.foldDocuments = foldDocuments;
+			this.fold = fold;
+			this.analysisDriver = analysisDriver;
+			this.authors = authors;
+			this.crossValidation = crossValidation;
+		}
+		
+		@Override
+		public Integer call() throws Exception {
+			long start = System.currentTimeMillis();
+			List<Document> training = new ArrayList<Document>();
+			for (int i = 0; i < foldDocuments.size(); i++) {
+				if (i != fold)
+					training.addAll(foldDocuments.get(i));
+			}
+			AnalysisDriver copy = AnalysisDrivers.copy(analysisDriver);
+			logger.info("Training " + copy.displayName() + " without fold " + (fold + 1));
+			copy.train(training);
+			for (Document document : foldDocuments.get(fold)) {
+				crossValidation.record(fold, document.getAuthor(), CrossValidation.predictedAuthor(copy.analyze(document), authors));
+			}
+			crossValidation.setMillis(fold, System.currentTimeMillis() - start);
+			return fold;
+		}
+	}
+	
 	private class AnalysisWorker implements Callable<Document> {
 		private Document document;
 		private AnalysisDriver analysisDriver;
+		private boolean leftOut;
 		
 		AnalysisWorker(Document document, AnalysisDriver analysisDriver){
+			this(document, analysisDriver, false);
+		}
+		
+		/**
+		 * @param leftOut analyze document, one of the knowns, as if analysisDriver had been trained without it
+		 */
+		AnalysisWorker(Document document, AnalysisDriver analysisDriver, boolean leftOut){
 			this.document = document;
 			this.analysisDriver = analysisDriver;
+			this.leftOut = leftOut;
 		}
 		
 		@Override
 		public Document call() throws Exception {
 			logger.info("Begining Analyzing: " + document.toString());
-			document.addResult(analysisDriver, analysisDriver.analyze(document));
+			if (leftOut) {
+				document.addResult(analysisDriver, ((LeaveOneOutCapable) analysisDriver).analyzeLeftOut(document));
+			} else {
+				document.addResult(analysisDriver, analysisDriver.analyze(document));
+			}
 			logger.info("Finished Analyzing: "+document.toString());
 			return document;
 		}
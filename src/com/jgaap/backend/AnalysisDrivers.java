@@ -24,6 +24,8 @@ import java.util.List;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.jgaap.generics.AnalysisDriver;
+import com.jgaap.generics.NeighborAnalysisDriver;
+import com.jgaap.generics.NonDistanceDependentAnalysisDriver;
 /**
  * 
  * Instances new Analysis Drivers based on display name.
@@ -80,4 +82,28 @@ public class AnalysisDrivers {
 		}
 		return analysisDriver;
 	}
+
+	/**
+	 * A new, untrained instance of analysisDriver's class with the same parameters, distance and dependency,
+	 * so that several models of one driver can be trained side by side
+	 * @param analysisDriver
+	 * @return the copy
+	 * @throws Exception if the class can not be instanced
+	 */
+	public static AnalysisDriver copy(AnalysisDriver analysisDriver) throws Exception {
+		AnalysisDriver copy = analysisDriver.getClass().newInstance();
+		copy.setParameters(analysisDriver);
+		if(analysisDriver instanceof NeighborAnalysisDriver){
+			NeighborAnalysisDriver neighborAnalysisDriver = (NeighborAnalysisDriver) analysisDriver;
+			((NeighborAnalysisDriver) copy).setDistance(neighborAnalysisDriver.getDistanceFunction());
+			((NeighborAnalysisDriver) copy).setDistanceMatrix(neighborAnalysisDriver.getDistanceMatrix());
+		}
+		if(analysisDriver instanceof NonDistanceDependentAnalysisDriver){
+			AnalysisDriver dependency = ((NonDistanceDependentAnalysisDriver) analysisDriver).analysisDriver;
+			if(dependency != null){
+				((NonDistanceDependentAnalysisDriver) copy).setAnalysisDriver(copy(dependency));
+			}
+		}
+		return copy;
+	}
 }
@@ -107,6 +107,27 @@ public class CLI {
 						.hasArg()
 						.withDescription("Batch processing, pass in a csv file of experiments")
 						.withLongOpt("experimentengine").create("ee");
+	static Option resume = OptionBuilder
+						.withDescription("Used with -ee, skip the experiments an earlier run of the same experiment already finished")
+						.withLongOpt("resume").create("r");
+	static Option checkpoint = OptionBuilder
+						.withDescription("Used with -ee, keep preprocessed documents on disk so a resumed run can reuse them")
+						.withLongOpt("checkpoint").create("cp");
+	static Option workers = OptionBuilder
+						.withArgName("count")
+						.hasArg()
+						.withDescription("Used with -ee, run the experiments in this many separate JVMs")
+						.withLongOpt("workers").create("workers");
+	static Option worker = OptionBuilder
+						.withArgName("port")
+						.hasArg()
+						.withDescription("Run experiments handed out by the -workers coordinator listening on port")
+						.withLongOpt("worker").create("worker");
+	static Option crossValidate = OptionBuilder
+						.withArgName("folds")
+						.hasArg()
+						.withDescription("Report a stratified cross validation over the known documents in this many folds instead of attributing the unknowns")
+						.withLongOpt("crossvalidate").create("cv");
 
 	static {
 		options.addOption(help);
@@ -120,6 +141,11 @@ public class CLI {
 		options.addOption(load);
 		options.addOption(save);
 		options.addOption(experimentEngine);
+		options.addOption(resume);
+		options.addOption(checkpoint);
+		options.addOption(workers);
+		options.addOption(worker);
+		options.addOption(crossValidate);
 	}
 
 	/**
@@ -172,7 +198,15 @@ public class CLI {
 		} else if (cmd.hasOption("ee")) {
 			String eeFile = cmd.getOptionValue("ee");
 			String lang = cmd.getOptionValue("lang");
-			ExperimentEngine.runExperiment(eeFile, lang);
+			if (cmd.hasOption("workers")) {
+				ExperimentCoordinator.runExperiment(eeFile, lang, cmd.hasOption("r"), cmd.hasOption("cp"),
+						Integer.parseInt(cmd.getOptionValue("workers")));
+			} else {
+				ExperimentEngine.runExperiment(eeFile, lang, cmd.hasOption("r"), cmd.hasOption("cp"));
+			}
+			System.exit(0);
+		} else if (cmd.hasOption("worker")) {
+			ExperimentCoordinator.work(Integer.parseInt(cmd.getOptionValue("worker")));
 			System.exit(0);
 		} else {
 			JGAAP.commandline = true;
@@ -220,8 +254,6 @@ public class CLI {
 			if (distanceFunction != null) {
 				api.addDistanceFunction(distanceFunction, analysisDriver);
 			}
-			api.execute();
-			List<Document> unknowns = api.getUnknownDocuments();
 			OutputStreamWriter outputStreamWriter;
 			String saveFile = cmd.getOptionValue('s');
 			if (saveFile == null) {
@@ -230,10 +262,19 @@ public class CLI {
 				outputStreamWriter = new OutputStreamWriter(new FileOutputStream(saveFile));
 			}
 			Writer writer = new BufferedWriter(outputStreamWriter);
-			for (Document unknown : unknowns) {
-				writer.append(unknown.getFormattedResult(analysisDriver));
+			if (cmd.hasOption("cv")) {
+				for (CrossValidation crossValidation : api.crossValidate(Integer.parseInt(cmd.getOptionValue("cv")), 0)) {
+					writer.append(crossValidation.toString());
+				}
+			} else {
+				api.execute();
+				List<Document> unknowns = api.getUnknownDocuments();
+				for (Document unknown : unknowns) {
+					writer.append(unknown.getFormattedResult(analysisDriver));
+				}
 			}
 			writer.append('\n');
+			writer.flush();
 		}
 	}
 }
@@ -0,0 +1,223 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.jgaap.util.Document;
+import com.jgaap.util.Pair;
+
+/**
+ * The outcome of a stratified k-fold cross validation of one AnalysisDriver
+ * over the known Documents: the accuracy and time of each fold and a
+ * confusion matrix of actual against predicted authors over all folds.
+ *
+ * @since 8.0.3
+ */
+public class CrossValidation {
+
+	private final String analysisName;
+	private final int[] correct;
+	private final int[] tested;
+	private final long[] millis;
+	private final Map<String, Map<String, Integer>> confusion = new TreeMap<String, Map<String, Integer>>();
+	private final SortedSet<String> authors = new TreeSet<String>();
+
+	/**
+	 * @param analysisName the display name of the AnalysisDriver validated
+	 * @param folds the number of folds
+	 */
+	public CrossValidation(String analysisName, int folds) {
+		this.analysisName = analysisName;
+		correct = new int[folds];
+		tested = new int[folds];
+		millis = new long[folds];
+	}
+
+	/**
+	 * Deals the documents of each author in random order over k folds, so that every fold
+	 * holds about the same share of each author. An author with fewer than k documents
+	 * is missing from some folds.
+	 * @param knownDocuments
+	 * @param k the number of folds, at least 2 and at most the number of documents
+	 * @param random
+	 * @return the documents of each fold
+	 */
+	public static List<List<Document>> stratify(List<Document> knownDocuments, int k, Random random) {
+		if (k < 2 || k > knownDocuments.size()) {
+			throw new IllegalArgumentException("Can not split " + knownDocuments.size() + " known documents into " + k + " folds");
+		}
+		Map<String, List<Document>> byAuthor = new TreeMap<String, List<Document>>();
+		for (Document document : knownDocuments) {
+			List<Document> documents = byAuthor.get(document.getAuthor());
+			if (documents == null) {
+				documents = new ArrayList<Document>();
+				byAuthor.put(document.getAuthor(), documents);
+			}
+			documents.add(document);
+		}
+		List<List<Document>> folds = new ArrayList<List<Document>>(k);
+		for (int i = 0; i < k; i++) {
+			folds.add(new ArrayList<Document>());
+		}
+		// dealing carries on where the last author stopped so the folds stay level
+		int next = 0;
+		for (List<Document> documents : byAuthor.values()) {
+			Collections.shuffle(documents, random);
+			for (Document document : documents) {
+				folds.get(next).add(document);
+				next = (next + 1) % k;
+			}
+		}
+		return folds;
+	}
+
+	/**
+	 * @param results the ranking an AnalysisDriver returned
+	 * @param authors the known authors
+	 * @return the author of the top ranked result, results of neighbor drivers are labelled "author -path"
+	 */
+	public static String predictedAuthor(List<Pair<String, Double>> results, Collection<String> authors) {
+		if (results == null || results.isEmpty()) {
+			return null;
+		}
+		String label = results.get(0).getFirst();
+		String predicted = null;
+		for (String author : authors) {
+			if (label.equals(author)) {
+				return author;
+			} else if (label.startsWith(author + " -") && (predicted == null || author.length() > predicted.length())) {
+				predicted = author;
+			}
+		}
+		return predicted != null ? predicted : label;
+	}
+
+	/**
+	 * Records one tested document
+	 * @param fold
+	 * @param actual its author
+	 * @param predicted the author it was attributed to, null if it was not attributed
+	 */
+	public synchronized void record(int fold, String actual, String predicted) {
+		if (predicted == null) {
+			predicted = "";
+		}
+		tested[fold]++;
+		if (actual.equals(predicted)) {
+			correct[fold]++;
+		}
+		Map<String, Integer> row = confusion.get(actual);
+		if (row == null) {
+			row = new TreeMap<String, Integer>();
+			confusion.put(actual, row);
+		}
+		Integer count = row.get(predicted);
+		row.put(predicted, count == null ? 1 : count + 1);
+		authors.add(actual);
+		authors.add(predicted);
+	}
+
+	/**
+	 * @param fold
+	 * @param millis how long training and testing the fold took
+	 */
+	public synchronized void setMillis(int fold, long millis) {
+		this.millis[fold] = millis;
+	}
+
+	public String getAnalysisName() {
+		return analysisName;
+	}
+
+	public int getFolds() {
+		return tested.length;
+	}
+
+	/**
+	 * @param fold
+	 * @return the fraction of the fold's documents attributed to their author
+	 */
+	public synchronized double getAccuracy(int fold) {
+		return tested[fold] == 0 ? 0 : (double) correct[fold] / tested[fold];
+	}
+
+	/**
+	 * @return the fraction of all documents attributed to their author
+	 */
+	public synchronized double getAccuracy() {
+		int allCorrect = 0;
+		int allTested = 0;
+		for (int i = 0; i < tested.length; i++) {
+			allCorrect += correct[i];
+			allTested += tested[i];
+		}
+		return allTested == 0 ? 0 : (double) allCorrect / allTested;
+	}
+
+	/**
+	 * @param fold
+	 * @return how long training and testing the fold took
+	 */
+	public synchronized long getMillis(int fold) {
+		return millis[fold];
+	}
+
+	/**
+	 * @param actual
+	 * @param predicted
+	 * @return how many documents by actual were attributed to predicted
+	 */
+	public synchronized int getConfusion(String actual, String predicted) {
+		Map<String, Integer> row = confusion.get(actual);
+		Integer count = row == null ? null : row.get(predicted);
+		return count == null ? 0 : count;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append(analysisName).append(" ").append(tested.length).append("-fold cross validation\n");
+		for (int i = 0; i < tested.length; i++) {
+			buffer.append("Fold ").append(i + 1).append(": ").append(correct[i]).append("/").append(tested[i])
+					.append(String.format(" %.4f", getAccuracy(i))).append(" in ").append(millis[i]).append(" ms\n");
+		}
+		buffer.append(String.format("Accuracy: %.4f%n", getAccuracy()));
+		buffer.append("Confusion (rows actual, columns predicted)\n");
+		for (String predicted : authors) {
+			buffer.append("\t").append(predicted.isEmpty() ? "(none)" : predicted);
+		}
+		buffer.append("\n");
+		for (String actual : confusion.keySet()) {
+			buffer.append(actual);
+			for (String predicted : authors) {
+				buffer.append("\t").append(getConfusion(actual, predicted));
+			}
+			buffer.append("\n");
+		}
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,498 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import com.jgaap.JGAAP;
+import com.jgaap.JGAAPConstants;
+import com.jgaap.util.PreprocessingCache;
+
+/**
+ * Runs an experiment file across several worker JVMs on this machine, for
+ * experiments whose heaps or garbage collection pauses get in each other's way
+ * inside one JVM.
+ *
+ * Rows sharing their preprocessing form one unit of work, as they form one
+ * Experiment inside ExperimentEngine. Workers connect back over a loopback
+ * socket and pull a unit whenever they are idle. They write result files into
+ * the usual tmp layout themselves and report each finished row, the
+ * coordinator alone keeps the journal. When a worker dies the rows it had not
+ * finished go back in the queue and a new worker is started, a unit that has
+ * taken down MAX_ATTEMPTS workers is given up. Workers stop being replaced only
+ * once MAX_ATTEMPTS per worker have failed in a row without a row finishing.
+ *
+ * Workers send a heartbeat every HEARTBEAT_MILLIS, one that stays silent for
+ * LIVENESS_MILLIS is taken to be hung, stopped and replaced like a dead one.
+ * A worker that keeps beating but finishes no row for the minutes set in the
+ * jgaap.worker.timeout system property (default 0, no limit) is treated the same.
+ *
+ * @since 8.0.3
+ */
+public class ExperimentCoordinator {
+
+	private static final Logger logger = Logger.getLogger(ExperimentCoordinator.class);
+
+	static final int MAX_ATTEMPTS = 3;
+	static final int HEARTBEAT_MILLIS = 30 * 1000;
+	static final int LIVENESS_MILLIS = 10 * HEARTBEAT_MILLIS;
+
+	public static final String TIMEOUT_PROPERTY = "jgaap.worker.timeout";
+	static final String WORKER_PROPERTY = "jgaap.worker";
+
+	private static final byte FINISHED_ROW = 1;
+	private static final byte FINISHED_UNIT = 2;
+	private static final byte HEARTBEAT = 3;
+
+	private final String experimentName;
+	private final String language;
+	private final ExperimentJournal journal;
+	private final int workers;
+	private final List<String> workerArguments;
+	private final long timeoutMillis;
+	private final LinkedList<Unit> pending = new LinkedList<Unit>();
+	private final Map<Integer, Process> processes = new LinkedHashMap<Integer, Process>();
+	private ServerSocket server;
+	private int unfinished;
+	private int nextWorker;
+	private int failures;
+
+	private ExperimentCoordinator(String experimentName, String language, ExperimentJournal journal, int workers,
+			List<String> workerArguments) {
+		this.experimentName = experimentName;
+		this.language = language;
+		this.journal = journal;
+		this.workers = workers;
+		this.workerArguments = workerArguments;
+		long timeout = 0;
+		try {
+			timeout = Long.parseLong(System.getProperty(TIMEOUT_PROPERTY, "0"));
+		} catch (NumberFormatException e) {
+			logger.warn("Ignoring " + TIMEOUT_PROPERTY + "=" + System.getProperty(TIMEOUT_PROPERTY));
+		}
+		timeoutMillis = Math.max(0, timeout) * 60 * 1000;
+	}
+
+	/**
+	 * @param listPath
+	 *            the location of the csv file of experiments
+	 * @param lang
+	 * @param resume
+	 *            skip the rows an earlier run of this experiment recorded in its journal as finished
+	 * @param checkpoint
+	 *            have the workers keep preprocessed documents on disk
+	 * @param workers
+	 *            the number of worker JVMs
+	 */
+	public static void runExperiment(String listPath, String lang, boolean resume, boolean checkpoint, int workers) {
+		try {
+			runExperiment(CSVIO.readCSV(listPath), lang, resume, checkpoint, workers);
+		} catch (IOException e) {
+			logger.fatal("Problem processing experiment file: " + listPath, e);
+		}
+	}
+
+	public static void runExperiment(List<List<String>> experimentTable, String lang, boolean resume, boolean checkpoint,
+			int workers) {
+		final String experimentName = experimentTable.remove(0).get(0);
+		File journalFile = ExperimentEngine.getJournalFile(experimentName);
+		ExperimentJournal journal;
+		try {
+			journal = new ExperimentJournal(journalFile, resume);
+		} catch (IOException e) {
+			logger.fatal("Could not open experiment journal " + journalFile, e);
+			return;
+		}
+		List<String> workerArguments = new ArrayList<String>();
+		workerArguments.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+		for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (argument.startsWith("-D") || argument.startsWith("-Xm")) {
+				workerArguments.add(argument);
+			}
+		}
+		if (checkpoint && System.getProperty(PreprocessingCache.DIRECTORY_PROPERTY) == null) {
+			workerArguments.add("-D" + PreprocessingCache.DIRECTORY_PROPERTY + "="
+					+ new File(JGAAPConstants.JGAAP_TMPDIR, "cache").getAbsolutePath());
+		}
+		workerArguments.add("-cp");
+		workerArguments.add(System.getProperty("java.class.path"));
+		workerArguments.add(JGAAP.class.getName());
+		ExperimentCoordinator coordinator = new ExperimentCoordinator(experimentName, lang == null ? "" : lang, journal,
+				Math.max(1, workers), workerArguments);
+		try {
+			coordinator.run(experimentTable);
+		} catch (IOException e) {
+			logger.fatal("Problem coordinating experiment " + experimentName, e);
+		} catch (InterruptedException e) {
+			logger.error("Interrupted while coordinating experiment " + experimentName, e);
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				logger.error("Could not close experiment journal " + journalFile, e);
+			}
+		}
+	}
+
+	private void run(List<List<String>> experimentTable) throws IOException, InterruptedException {
+		// the same grouping and order ExperimentEngine uses, by the raw preprocessing columns
+		Map<String, Unit> units = new TreeMap<String, Unit>();
+		int rows = 0;
+		for (List<String> experimentRow : experimentTable) {
+			if (experimentRow.isEmpty()) {
+				continue;
+			} else if (experimentRow.size() >= 6) {
+				String hash = ExperimentEngine.hash(experimentName, experimentRow);
+				String finished = journal.getCompleted(hash);
+				if (finished != null) {
+					logger.info("Experiment: " + finished + " was finished by an earlier run, skipping it.");
+					continue;
+				}
+				String key = experimentRow.get(5).trim() + "\n" + experimentRow.get(1).trim() + "\n" + experimentRow.get(2).trim();
+				Unit unit = units.get(key);
+				if (unit == null) {
+					unit = new Unit();
+					units.put(key, unit);
+				}
+				unit.rows.put(hash, experimentRow);
+				rows++;
+			} else {
+				logger.error("Experiment " + experimentRow.toString() + " missing " + (6 - experimentRow.size())
+						+ " column(s)");
+			}
+		}
+		if (units.isEmpty()) {
+			return;
+		}
+		pending.addAll(units.values());
+		unfinished = units.size();
+		int started = Math.min(workers, units.size());
+		logger.info(rows + " experiment rows in " + units.size() + " units of work go to " + started + " worker JVMs");
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		try {
+			Thread acceptor = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					accept();
+				}
+			}, "ExperimentCoordinator acceptor");
+			acceptor.setDaemon(true);
+			acceptor.start();
+			synchronized (this) {
+				for (int i = 0; i < started; i++) {
+					startWorker();
+				}
+				giveUpIfNoWorkers();
+				while (unfinished > 0) {
+					wait();
+				}
+			}
+		} finally {
+			server.close();
+			synchronized (this) {
+				for (Process process : processes.values()) {
+					process.destroy();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts one worker JVM and replaces it when it exits while there is still work left, must hold the lock
+	 */
+	private void startWorker() {
+		final int id = nextWorker++;
+		List<String> command = new ArrayList<String>(workerArguments);
+		// before the main class
+		command.add(command.size() - 1, "-D" + WORKER_PROPERTY + "=" + id);
+		command.add("-worker");
+		command.add(Integer.toString(server.getLocalPort()));
+		final Process process;
+		try {
+			process = new ProcessBuilder(command).inheritIO().start();
+		} catch (IOException e) {
+			logger.error("Could not start a worker JVM", e);
+			return;
+		}
+		processes.put(id, process);
+		Thread monitor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				int exit;
+				try {
+					exit = process.waitFor();
+				} catch (InterruptedException e) {
+					return;
+				}
+				synchronized (ExperimentCoordinator.this) {
+					processes.remove(id);
+					if (unfinished > 0) {
+						if (++failures >= workers * MAX_ATTEMPTS) {
+							logger.error("Worker JVM exited with " + exit + ", " + failures
+									+ " have failed without a row finishing, not starting another");
+						} else {
+							logger.warn("Worker JVM exited with " + exit + " while work was left, starting another");
+							startWorker();
+						}
+						giveUpIfNoWorkers();
+					}
+				}
+			}
+		}, "ExperimentCoordinator monitor");
+		monitor.setDaemon(true);
+		monitor.start();
+	}
+
+	/**
+	 * Gives up the remaining units once there is no worker left to run them, must hold the lock
+	 */
+	private void giveUpIfNoWorkers() {
+		if (processes.isEmpty()) {
+			for (Unit unit : pending) {
+				giveUp(unit);
+			}
+			pending.clear();
+		}
+	}
+
+	private void giveUp(Unit unit) {
+		for (List<String> experimentRow : unit.rows.values()) {
+			logger.error("Experiment " + experimentRow + " was given up");
+		}
+		unfinished--;
+		notifyAll();
+	}
+
+	private void accept() {
+		while (!server.isClosed()) {
+			final Socket socket;
+			try {
+				socket = server.accept();
+			} catch (IOException e) {
+				if (!server.isClosed()) {
+					logger.error("Problem accepting a worker", e);
+				}
+				return;
+			}
+			Thread handler = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					serve(socket);
+				}
+			}, "ExperimentCoordinator handler");
+			handler.setDaemon(true);
+			handler.start();
+		}
+	}
+
+	/**
+	 * Hands units to one worker until there are none left
+	 */
+	private void serve(Socket socket) {
+		Unit unit = null;
+		int id = -1;
+		try {
+			socket.setSoTimeout(LIVENESS_MILLIS);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			id = in.readInt();
+			out.writeUTF(experimentName);
+			out.writeUTF(language);
+			while ((unit = take()) != null) {
+				out.writeInt(unit.rows.size());
+				for (List<String> experimentRow : unit.rows.values()) {
+					out.writeInt(experimentRow.size());
+					for (String cell : experimentRow) {
+						out.writeUTF(cell);
+					}
+				}
+				out.flush();
+				long progress = System.currentTimeMillis();
+				for (byte message = in.readByte(); message != FINISHED_UNIT; message = in.readByte()) {
+					if (message == HEARTBEAT) {
+						if (timeoutMillis > 0 && System.currentTimeMillis() - progress > timeoutMillis) {
+							throw new SocketTimeoutException("No experiment finished in " + (timeoutMillis / 60000) + " minutes");
+						}
+						continue;
+					}
+					String hash = in.readUTF();
+					String fileName = in.readUTF();
+					journal.complete(hash, fileName);
+					progress = System.currentTimeMillis();
+					synchronized (this) {
+						unit.rows.remove(hash);
+						failures = 0;
+					}
+					logger.info("Experiment: " + fileName + " has finished.");
+				}
+				synchronized (this) {
+					unfinished--;
+					notifyAll();
+				}
+				unit = null;
+			}
+			out.writeInt(0);
+			out.flush();
+		} catch (SocketTimeoutException e) {
+			logger.warn("Worker JVM is hung, stopping it", e);
+			synchronized (this) {
+				Process process = processes.get(id);
+				if (process != null) {
+					// its monitor starts the replacement
+					process.destroy();
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Lost a worker", e);
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				logger.debug("Problem closing worker socket", e);
+			}
+			if (unit != null) {
+				synchronized (this) {
+					if (unit.rows.isEmpty()) {
+						unfinished--;
+						notifyAll();
+					} else if (++unit.attempts >= MAX_ATTEMPTS) {
+						giveUp(unit);
+					} else {
+						pending.addFirst(unit);
+						notifyAll();
+						giveUpIfNoWorkers();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the next unit, or null once every unit has finished or been given up
+	 */
+	private synchronized Unit take() {
+		while (pending.isEmpty() && unfinished > 0) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		return pending.poll();
+	}
+
+	/**
+	 * Rows sharing their preprocessing, by the hash of each row
+	 */
+	private static class Unit {
+
+		final Map<String, List<String>> rows = new LinkedHashMap<String, List<String>>();
+		int attempts;
+	}
+
+	/**
+	 * Runs units handed out by the coordinator listening on port until it has none left
+	 * @param port
+	 * @throws IOException
+	 */
+	public static void work(int port) throws IOException {
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		Thread heartbeat = null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeInt(Integer.getInteger(WORKER_PROPERTY, -1));
+			out.flush();
+			heartbeat = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (true) {
+							Thread.sleep(HEARTBEAT_MILLIS);
+							synchronized (out) {
+								out.writeByte(HEARTBEAT);
+								out.flush();
+							}
+						}
+					} catch (InterruptedException e) {
+						// the worker is done
+					} catch (IOException e) {
+						logger.debug("Coordinator went away", e);
+					}
+				}
+			}, "ExperimentCoordinator heartbeat");
+			heartbeat.setDaemon(true);
+			heartbeat.start();
+			String experimentName = in.readUTF();
+			String language = in.readUTF();
+			ExperimentJournal journal = new ExperimentJournal() {
+				@Override
+				public void complete(String hash, String fileName) throws IOException {
+					synchronized (out) {
+						out.writeByte(FINISHED_ROW);
+						out.writeUTF(hash);
+						out.writeUTF(fileName);
+						out.flush();
+					}
+				}
+			};
+			for (int rows = in.readInt(); rows > 0; rows = in.readInt()) {
+				List<List<String>> experimentTable = new ArrayList<List<String>>(rows);
+				for (int i = 0; i < rows; i++) {
+					int cells = in.readInt();
+					List<String> experimentRow = new ArrayList<String>(cells);
+					for (int j = 0; j < cells; j++) {
+						experimentRow.add(in.readUTF());
+					}
+					experimentTable.add(Collections.unmodifiableList(experimentRow));
+				}
+				ExperimentEngine.runExperiment(experimentName, experimentTable, language.isEmpty() ? null : language, journal);
+				synchronized (out) {
+					out.writeByte(FINISHED_UNIT);
+					out.flush();
+				}
+			}
+		} finally {
+			if (heartbeat != null) {
+				heartbeat.interrupt();
+			}
+			socket.close();
+		}
+	}
+}
@@ -29,13 +29,17 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
@@ -45,6 +49,9 @@ import com.jgaap.generics.AnalysisDriver;
 import com.jgaap.generics.EventDriver;
 import com.jgaap.generics.ValidationDriver;
 import com.jgaap.util.Document;
+import com.jgaap.util.MemoryBudget;
+import com.jgaap.util.PreprocessingCache;
+import com.jgaap.util.WorkPool;
 
 /**
  * Experiment Engine This class takes a csv file of experiments and then will
@@ -56,7 +63,11 @@ public class ExperimentEngine {
 
 	static Logger logger = Logger.getLogger(ExperimentEngine.class);
 
-	private static final int workers = 1;
+	/**
+	 * The most experiments run at once, by default the parallelism of the shared WorkPool
+	 */
+	public static final String WORKERS_PROPERTY = "jgaap.experimentWorkers";
+
 	
 	private static String language = "english";
 
@@ -116,8 +127,21 @@ public class ExperimentEngine {
 	 */
 
 	public static void runExperiment(String listPath, String lang) {
+		runExperiment(listPath, lang, false, false);
+	}
+
+	/**
+	 * @param listPath
+	 *            the location of the csv file of experiments
+	 * @param resume
+	 *            skip the rows an earlier run of this experiment recorded in its journal as finished
+	 * @param checkpoint
+	 *            keep canonicized text and event sets on disk (under the tmp directory unless
+	 *            jgaap.cache.dir is set) so that a resumed run does not redo them
+	 */
+	public static void runExperiment(String listPath, String lang, boolean resume, boolean checkpoint) {
 		try {
-			runExperiment(CSVIO.readCSV(listPath), lang);
+			runExperiment(CSVIO.readCSV(listPath), lang, resume, checkpoint);
 		} catch (IOException e) {
 			logger.fatal("Problem processing experiment file: " + listPath, e);
 		}
@@ -125,11 +149,65 @@ public class ExperimentEngine {
 	}
 
 	public static void runExperiment(List<List<String>> experimentTable, String lang) {
+		runExperiment(experimentTable, lang, false, false);
+	}
+
+	public static void runExperiment(List<List<String>> experimentTable, String lang, boolean resume, boolean checkpoint) {
 		if (lang != null)
 			language = lang;
 		final String experimentName = experimentTable.remove(0).get(0);
-		ExecutorService experimentExecutor = Executors.newFixedThreadPool(workers);
-		List<Future<String>> runningExperiments = new ArrayList<Future<String>>(experimentTable.size());
+		if (checkpoint && !PreprocessingCache.getShared().isPersistent()) {
+			PreprocessingCache.configure(PreprocessingCache.fromProperties(new File(JGAAPConstants.JGAAP_TMPDIR, "cache")));
+		}
+		File journalFile = getJournalFile(experimentName);
+		ExperimentJournal journal = null;
+		try {
+			journal = new ExperimentJournal(journalFile, resume);
+		} catch (IOException e) {
+			logger.error("Could not open experiment journal " + journalFile + ", finished experiments will not be recorded", e);
+		}
+		runExperiment(experimentName, experimentTable, null, journal);
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				logger.error("Could not close experiment journal " + journalFile, e);
+			}
+		}
+	}
+
+	/**
+	 * @param experimentName
+	 * @return where the journal of the experiment is kept
+	 */
+	static File getJournalFile(String experimentName) {
+		return new File(JGAAPConstants.JGAAP_TMPDIR, experimentName.replaceAll("[^\\w.-]", "_") + ".journal");
+	}
+
+	/**
+	 * @param experimentName
+	 * @param experimentRow
+	 * @return the hash of everything that decides what the row computes
+	 */
+	static String hash(String experimentName, List<String> experimentRow) {
+		return ExperimentJournal.hash(experimentName, experimentRow.get(0), experimentRow.get(1).trim(), experimentRow.get(2).trim(),
+				experimentRow.get(3).trim(), experimentRow.get(4).trim(), experimentRow.get(5).trim());
+	}
+
+	/**
+	 * Runs the rows of an experiment in this JVM
+	 * @param experimentName
+	 * @param experimentTable the rows, without the experiment name
+	 * @param lang the language or null to keep the current one
+	 * @param journal where finished rows are recorded and rows already finished are skipped, may be null
+	 */
+	static void runExperiment(String experimentName, List<List<String>> experimentTable, String lang, ExperimentJournal journal) {
+		if (lang != null)
+			language = lang;
+		// rows differing only in analysis or distance share one Experiment, so their documents are
+		// loaded, canonicized, eventified and culled once for all of them
+		Map<String, Experiment> plan = new LinkedHashMap<String, Experiment>();
+		int rows = 0;
 		for (final List<String> experimentRow : experimentTable) {
 			if (experimentRow.isEmpty()) {
 				continue;
@@ -140,129 +218,289 @@ public class ExperimentEngine {
 				String analysis = experimentRow.get(3).trim();
 				String distance = experimentRow.get(4).trim();
 				String documentsPath = experimentRow.get(5).trim();
+				String hash = hash(experimentName, experimentRow);
+				String finished = journal == null ? null : journal.getCompleted(hash);
+				if (finished != null) {
+					logger.info("Experiment: " + finished + " was finished by an earlier run, skipping it.");
+					continue;
+				}
 				String fileName = fileNameGen(Arrays.asList(canonicizers), events, analysis
 						+ (distance.isEmpty() ? "" : "-" + distance), experimentName, number);
 
-				runningExperiments.add(experimentExecutor.submit(new Experiment(canonicizers, events, analysis,
-						distance, documentsPath, fileName)));
+				Experiment experiment = new Experiment(canonicizers, events, documentsPath, journal);
+				if (plan.containsKey(experiment.getPreprocessingKey())) {
+					experiment = plan.get(experiment.getPreprocessingKey());
+				} else {
+					plan.put(experiment.getPreprocessingKey(), experiment);
+				}
+				experiment.addRow(new ExperimentRow(analysis, distance, fileName, hash));
+				rows++;
 			} else {
 				logger.error("Experiment " + experimentRow.toString() + " missing " + (6 - experimentRow.size())
 						+ " column(s)");
 			}
 		}
-		experimentExecutor.shutdown();
-
-		while (!experimentExecutor.isTerminated()) {
-			Iterator<Future<String>> iterator = runningExperiments.iterator();
-			while (iterator.hasNext()) {
-				Future<String> current = iterator.next();
-				if (current.isDone()) {
-					try {
-						logger.info("Experiment: " + current.get() + " has finished.");
-					} catch (InterruptedException e) {
-						logger.error("Problem printing experiment completion", e);
-					} catch (ExecutionException e) {
-						logger.error("Problem printing experiment completion", e);
-					}
-					iterator.remove();
-					System.gc(); //I know this is terrible and should be removed MVR (Dear Future Me, Please forgive me.)
+		logger.info(rows + " experiment rows share " + plan.size() + " preprocessing pipelines");
+		List<Experiment> experiments = new ArrayList<Experiment>(plan.values());
+		// experiments reading the same documents run back to back so that what they
+		// share is still in the PreprocessingCache, otherwise the file order is kept
+		Collections.sort(experiments, new Comparator<Experiment>() {
+			@Override
+			public int compare(Experiment experiment1, Experiment experiment2) {
+				return experiment1.getPreprocessingKey().compareTo(experiment2.getPreprocessingKey());
+			}
+		});
+		WorkPool workPool = WorkPool.getShared();
+		int workers = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, workPool.getParallelism()));
+		// another experiment is only started while its estimated size fits the MemoryBudget
+		MemoryBudget budget = MemoryBudget.getShared();
+		// experiments share the work pool with the stages inside them
+		CompletionService<List<String>> completionService = new ExecutorCompletionService<List<String>>(workPool.getPool());
+		Map<Future<List<String>>, MemoryBudget.Account> running = new LinkedHashMap<Future<List<String>>, MemoryBudget.Account>();
+		int next = 0;
+		int finishedRows = 0;
+		for (int i = 0; i < experiments.size(); i++) {
+			while (next < experiments.size() && running.size() < workers) {
+				Experiment experiment = experiments.get(next);
+				long bytes = experiment.estimateMemory();
+				MemoryBudget.Account account = running.isEmpty() ? budget.open(bytes) : budget.tryOpen(bytes);
+				if (account == null) {
+					break;
 				}
+				experiment.setMemoryAccount(account);
+				running.put(completionService.submit(experiment), account);
+				next++;
+			}
+			try {
+				Future<List<String>> finished = WorkPool.take(completionService);
+				running.remove(finished);
+				for (String fileName : finished.get()) {
+					logger.info("Experiment: " + fileName + " has finished (" + (++finishedRows) + " of " + rows + ").");
+				}
+			} catch (InterruptedException e) {
+				logger.error("Interrupted, cancelling " + running.size() + " running experiments", e);
+				// an experiment cancelled before it started never closes its own account
+				for (Map.Entry<Future<List<String>>, MemoryBudget.Account> entry : running.entrySet()) {
+					entry.getKey().cancel(true);
+					entry.getValue().close();
+				}
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				logger.error("Problem printing experiment completion", e);
 			}
 		}
 	}
 
-	private static class Experiment implements Callable<String> {
+	/**
+	 * One analysis of an Experiment and the file its results are written to
+	 */
+	private static class ExperimentRow {
 
-		private String[] canonicizers;
-		private String[] events;
 		private String analysis;
 		private String distance;
-		private String documentsPath;
 		private String fileName;
+		private String hash;
+		/** whether the results file has been written, so a retry can leave the row out */
+		private boolean written;
 
-		public Experiment(String[] canonicizers, String[] events, String analysis, String distance,
-				String documentsPath, String fileName) {
-			this.canonicizers = canonicizers;
-			this.events = events;
+		public ExperimentRow(String analysis, String distance, String fileName, String hash) {
 			this.analysis = analysis;
 			this.distance = distance;
-			this.documentsPath = documentsPath;
 			this.fileName = fileName;
+			this.hash = hash;
 		}
+	}
 
-		@Override
-		public String call() throws Exception {
-			API experiment = API.getPrivateInstance();
-			experiment.setLanguage(language);
-			try {
-				List<List<String>> tmp;
+	/**
+	 * The documents, canonicizers and events shared by one or more rows, run as one API
+	 * with an AnalysisDriver for every row
+	 */
+	private static class Experiment implements Callable<List<String>> {
+
+		private String[] canonicizers;
+		private String[] events;
+		private String documentsPath;
+		private List<ExperimentRow> rows;
+		private ExperimentJournal journal;
+		private MemoryBudget.Account memoryAccount;
+		/** the rows of the documents CSV, read once for the estimate and every run */
+		private List<List<String>> documentTable;
+		private long memory = -1;
+
+		public Experiment(String[] canonicizers, String[] events, String documentsPath, ExperimentJournal journal) {
+			this.canonicizers = canonicizers;
+			this.events = events;
+			this.documentsPath = documentsPath;
+			this.rows = new ArrayList<ExperimentRow>();
+			this.journal = journal;
+		}
+
+		public void addRow(ExperimentRow row) {
+			rows.add(row);
+		}
+
+		/**
+		 * @return what experiments that share their loading, canonicizing and eventifying have in common
+		 */
+		String getPreprocessingKey() {
+			return documentsPath + "\n" + Arrays.toString(canonicizers) + "\n" + Arrays.toString(events);
+		}
+
+		/**
+		 * @return the bytes the documents of this experiment are estimated to need once loaded, computed on first use
+		 */
+		long estimateMemory() {
+			if (memory < 0) {
+				long bytes = 0;
+				try {
+					for (Document document : readDocuments()) {
+						bytes += MemoryBudget.estimateLoad(document, events.length);
+					}
+				} catch (Exception e) {
+					logger.debug("Could not estimate the memory of " + documentsPath, e);
+				}
+				memory = bytes;
+			}
+			return memory;
+		}
+
+		/**
+		 * @param memoryAccount what the runs of this experiment are charged to, closed once it finishes
+		 */
+		void setMemoryAccount(MemoryBudget.Account memoryAccount) {
+			this.memoryAccount = memoryAccount;
+		}
+
+		/**
+		 * @return new Documents for the rows of the documents CSV, which is only read the first time
+		 */
+		private List<Document> readDocuments() throws Exception {
+			if (documentTable == null) {
 				if (documentsPath.startsWith(JGAAPConstants.JGAAP_RESOURCE_PACKAGE)) {
-					tmp = CSVIO.readCSV(com.jgaap.JGAAP.class.getResourceAsStream(documentsPath));
+					documentTable = CSVIO.readCSV(com.jgaap.JGAAP.class.getResourceAsStream(documentsPath));
 				} else {
-					tmp = CSVIO.readCSV(documentsPath);
-				}
-				List<Document> documents = Utils.getDocumentsFromCSV(tmp);
-				for (Document document : documents) {
-					experiment.addDocument(document);
-				}
-				for (String canonicizer : canonicizers) {
-					if (!canonicizer.isEmpty())
-						experiment.addCanonicizer(canonicizer);
+					documentTable = CSVIO.readCSV(documentsPath);
 				}
-				for (String event : events) {
-					String[] canons = null;
-					String[] cullers = null;
-					String[] splitCanon = event.split("@", 2);
-					if(splitCanon.length > 1){
-						event = splitCanon[0];
-						String[] splitCuller = splitCanon[1].split("#",2);
-						canons = splitCuller[0].split("@");
-						if(splitCuller.length > 1){
-							cullers = splitCuller[1].split("#");
+			}
+			return Utils.getDocumentsFromCSV(documentTable);
+		}
+
+		/**
+		 * @return the result files of every row, whether or not the row succeeded
+		 */
+		@Override
+		public List<String> call() {
+			List<String> fileNames = new ArrayList<String>(rows.size());
+			for (ExperimentRow row : rows) {
+				fileNames.add(row.fileName);
+			}
+			try {
+				run(rows);
+			} catch (Exception e) {
+				if (rows.size() == 1) {
+					logger.error("Could not run experiment " + rows.get(0).fileName, e);
+				} else {
+					// one failing analysis should not cost the rows sharing its preprocessing their results,
+					// rows whose results were written before the failure are not run again
+					logger.error("Could not run experiments " + fileNames + " together, running the unfinished ones one at a time", e);
+					for (ExperimentRow row : rows) {
+						if (row.written) {
+							continue;
 						}
-					} else {
-						String[] splitCuller = event.split("#",2);
-						if(splitCuller.length > 1){
-							event = splitCuller[0];
-							cullers = splitCuller[1].split("#");
+						try {
+							run(Collections.singletonList(row));
+						} catch (Exception rowException) {
+							logger.error("Could not run experiment " + row.fileName, rowException);
 						}
 					}
-					EventDriver eventDriver = experiment.addEventDriver(event.trim());
-					if(canons != null) {
-						for(String canon : canons) {
-							experiment.addCanonicizer(canon.trim(), eventDriver);
-						}
+				}
+			} finally {
+				if (memoryAccount != null) {
+					logger.info("Experiments " + fileNames + " memory: " + memoryAccount);
+					memoryAccount.close();
+				}
+			}
+			return fileNames;
+		}
+
+		private void run(List<ExperimentRow> rows) throws Exception {
+			API experiment = API.getPrivateInstance();
+			experiment.setLanguage(language);
+			experiment.setMemoryAccount(memoryAccount);
+			List<Document> documents = readDocuments();
+			for (Document document : documents) {
+				experiment.addDocument(document);
+			}
+			for (String canonicizer : canonicizers) {
+				if (!canonicizer.isEmpty())
+					experiment.addCanonicizer(canonicizer);
+			}
+			for (String event : events) {
+				String[] canons = null;
+				String[] cullers = null;
+				String[] splitCanon = event.split("@", 2);
+				if(splitCanon.length > 1){
+					event = splitCanon[0];
+					String[] splitCuller = splitCanon[1].split("#",2);
+					canons = splitCuller[0].split("@");
+					if(splitCuller.length > 1){
+						cullers = splitCuller[1].split("#");
 					}
-					if(cullers != null) {
-						for(String culler : cullers) {
-							experiment.addEventCuller(culler.trim(), eventDriver);
-						}
+				} else {
+					String[] splitCuller = event.split("#",2);
+					if(splitCuller.length > 1){
+						event = splitCuller[0];
+						cullers = splitCuller[1].split("#");
+					}
+				}
+				EventDriver eventDriver = experiment.addEventDriver(event.trim());
+				if(canons != null) {
+					for(String canon : canons) {
+						experiment.addCanonicizer(canon.trim(), eventDriver);
+					}
+				}
+				if(cullers != null) {
+					for(String culler : cullers) {
+						experiment.addEventCuller(culler.trim(), eventDriver);
 					}
 				}
-				AnalysisDriver analysisDriver = experiment.addAnalysisDriver(analysis);
-				if (!distance.isEmpty()) {
-					experiment.addDistanceFunction(distance, analysisDriver);
+			}
+			List<AnalysisDriver> analysisDrivers = new ArrayList<AnalysisDriver>(rows.size());
+			for (ExperimentRow row : rows) {
+				AnalysisDriver analysisDriver = experiment.addAnalysisDriver(row.analysis);
+				if (!row.distance.isEmpty()) {
+					experiment.addDistanceFunction(row.distance, analysisDriver);
 				}
-				experiment.execute();
+				analysisDrivers.add(analysisDriver);
+			}
+			experiment.execute();
+			for (int i = 0; i < rows.size(); i++) {
+				AnalysisDriver analysisDriver = analysisDrivers.get(i);
 				List<Document> resultDocuments;
 				if (analysisDriver instanceof ValidationDriver) {
 					resultDocuments = experiment.getDocuments();
 				} else {
 					resultDocuments = experiment.getUnknownDocuments();
 				}
-				Path filePath = FileSystems.getDefault().getPath(fileName);
-				Writer writer = Files.newBufferedWriter(filePath, Charset.defaultCharset(), StandardOpenOption.CREATE);
+				ExperimentRow row = rows.get(i);
+				Path filePath = FileSystems.getDefault().getPath(row.fileName);
+				Writer writer = Files.newBufferedWriter(filePath, Charset.defaultCharset(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 				for (Document resultDocument : resultDocuments) {
 					if (resultDocument.getFormattedResult(analysisDriver) != null && !resultDocument.getFormattedResult(analysisDriver).equals("null"))
 						writer.append(resultDocument.getFormattedResult(analysisDriver));
 				}
 				writer.close();
-			} catch (Exception e) {
-				logger.error("Could not run experiment " + fileName, e);
+				row.written = true;
+				if (journal != null) {
+					try {
+						journal.complete(row.hash, row.fileName);
+					} catch (IOException e) {
+						logger.error("Could not record experiment " + row.fileName + " as finished", e);
+					}
+				}
 			}
-			return fileName;
 		}
-
 	}
 
 }
@@ -0,0 +1,152 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An append only record of the experiment rows that have finished, so that a
+ * run of the same experiment file that was cut short can be resumed without
+ * redoing them.
+ *
+ * Each line holds the hash of a row's configuration and the result file it
+ * wrote. A line is written and synced to disk only after the result file has
+ * been closed, a torn last line left by a crash is ignored.
+ *
+ * @since 8.0.3
+ */
+public class ExperimentJournal implements Closeable {
+
+	private final Map<String, String> completed;
+	private final FileOutputStream out;
+
+	/**
+	 * @param file where the journal is kept
+	 * @param resume keep the rows already recorded in file, otherwise file is started over
+	 * @throws IOException
+	 */
+	public ExperimentJournal(File file, boolean resume) throws IOException {
+		completed = new HashMap<String, String>();
+		if (resume && file.isFile()) {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String[] fields = line.split("\t", 2);
+					if (fields.length == 2 && fields[0].length() == 64 && !fields[1].isEmpty()) {
+						completed.put(fields[0], fields[1]);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory()) {
+			parent.mkdirs();
+		}
+		boolean torn = resume && file.length() > 0 && lastByte(file) != '\n';
+		out = new FileOutputStream(file, resume);
+		if (torn) {
+			// a crash left the last line without its line break
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * A journal without a file of its own, for subclasses that record finished rows elsewhere
+	 */
+	protected ExperimentJournal() {
+		completed = new HashMap<String, String>();
+		out = null;
+	}
+
+	private static int lastByte(File file) throws IOException {
+		RandomAccessFile access = new RandomAccessFile(file, "r");
+		try {
+			access.seek(access.length() - 1);
+			return access.read();
+		} finally {
+			access.close();
+		}
+	}
+
+	/**
+	 * @param configuration everything that decides what a row computes
+	 * @return a hex SHA-256 of configuration
+	 */
+	public static String hash(String... configuration) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required of every JVM", e);
+		}
+		for (String value : configuration) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		StringBuilder hex = new StringBuilder(64);
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * @param hash of a row's configuration
+	 * @return the result file of the row if it was recorded and the file is still there, otherwise null
+	 */
+	public synchronized String getCompleted(String hash) {
+		String fileName = completed.get(hash);
+		return fileName != null && new File(fileName).isFile() ? fileName : null;
+	}
+
+	/**
+	 * Records that the row with this hash wrote fileName
+	 * @param hash of the row's configuration
+	 * @param fileName its closed result file
+	 * @throws IOException
+	 */
+	public synchronized void complete(String hash, String fileName) throws IOException {
+		if (out != null) {
+			out.write((hash + "\t" + fileName + "\n").getBytes(StandardCharsets.UTF_8));
+			out.getFD().sync();
+		}
+		completed.put(hash, fileName);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.close();
+		}
+	}
+}
@@ -53,7 +53,7 @@ public class AbsoluteCentroidDriver extends NeighborAnalysisDriver {
 	public void train(List<Document> knowns) {
 		Multimap<String, AbsoluteHistogram> knownHistograms = HashMultimap.create();
 		for (Document known : knowns) {
-			AbsoluteHistogram AbsoluteHistogram = new AbsoluteHistogram(known);
+			AbsoluteHistogram AbsoluteHistogram = known.getAbsoluteHistogram();
 			knownHistograms.put(known.getAuthor(), AbsoluteHistogram);
 		}
 		ImmutableMap.Builder<String, Histogram> mapBuilder = ImmutableMap.builder();
@@ -65,7 +65,7 @@ public class AbsoluteCentroidDriver extends NeighborAnalysisDriver {
 
 	@Override
 	public List<Pair<String, Double>> analyze(Document unknown) throws AnalyzeException {
-		Histogram unknownHistogram = new AbsoluteHistogram(unknown);
+		Histogram unknownHistogram = unknown.getAbsoluteHistogram();
 		List<Pair<String, Double>> result = new ArrayList<Pair<String, Double>>(knownCentroids.size());
 		for (Entry<String, Histogram> knownEntry : knownCentroids.entrySet()) {
 			try {
@@ -48,7 +48,7 @@ public class BurrowsDelta extends AnalysisDriver {
 		ImmutableSet.Builder<Event> eventsBuilder = ImmutableSet.builder();
 		ImmutableMultimap.Builder<String, EventMap> knownHistogramsBuilder = ImmutableMultimap.builder();
 		for (Document known : knowns) {
-			EventMap eventMap = new EventMap(known);
+			EventMap eventMap = known.getEventMap();
 			eventsBuilder.addAll(eventMap.uniqueEvents());
 			knownHistogramsBuilder.put(known.getAuthor(), eventMap);
 		}
@@ -91,7 +91,7 @@ public class BurrowsDelta extends AnalysisDriver {
 	 */
 	public List<Pair<String, Double>> analyze(Document unknown) {
 		List<Pair<String, Double>> results = new ArrayList<Pair<String, Double>>();
-		EventMap unknownEventMap = new EventMap(unknown);
+		EventMap unknownEventMap = unknown.getEventMap();
 		if (useCentroid) {
 			for (Entry<String, EventMap> entry : knownCentroids.entrySet()) {
 				double delta = 0.0;
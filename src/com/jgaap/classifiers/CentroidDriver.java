@@ -3,20 +3,23 @@ package com.jgaap.classifiers;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 
 import org.apache.log4j.Logger;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.jgaap.generics.AnalyzeException;
 import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.NeighborAnalysisDriver;
 import com.jgaap.util.Document;
 import com.jgaap.util.EventMap;
-import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 import com.jgaap.util.Pair;
 
 /**
@@ -27,11 +30,12 @@ import com.jgaap.util.Pair;
  * @author Michael Ryan
  * @since 5.0.2
  */
-public class CentroidDriver extends NeighborAnalysisDriver {
+public class CentroidDriver extends NeighborAnalysisDriver implements LeaveOneOutCapable {
 
 	static private Logger logger = Logger.getLogger(CentroidDriver.class);
 
-	private ImmutableMap<String, Histogram> knownCentroids;
+	private ImmutableMap<String, SparseHistogram> knownCentroids;
+	private ImmutableListMultimap<String, Document> knownDocuments;
 
 	@Override
 	public String displayName() {
@@ -52,25 +56,59 @@ public class CentroidDriver extends NeighborAnalysisDriver {
 
 	@Override
 	public void train(List<Document> knowns) {
-		Multimap<String, EventMap> knownHistograms = HashMultimap.create();
+		Multimap<String, SparseHistogram> knownHistograms = HashMultimap.create();
+		ImmutableListMultimap.Builder<String, Document> documentsBuilder = ImmutableListMultimap.builder();
 		for (Document known : knowns) {
-			EventMap eventMap = new EventMap(known);
-			knownHistograms.put(known.getAuthor(), eventMap);
+			knownHistograms.put(known.getAuthor(), known.getSparseHistogram());
+			documentsBuilder.put(known.getAuthor(), known);
 		}
-		ImmutableMap.Builder<String, Histogram> mapBuilder = ImmutableMap.builder();
-		for (Entry<String, Collection<EventMap>> entry : knownHistograms.asMap().entrySet()) {
-			mapBuilder.put(entry.getKey(), EventMap.centroid(entry.getValue()));
+		knownDocuments = documentsBuilder.build();
+		ImmutableMap.Builder<String, SparseHistogram> mapBuilder = ImmutableMap.builder();
+		for (Entry<String, Collection<SparseHistogram>> entry : knownHistograms.asMap().entrySet()) {
+			mapBuilder.put(entry.getKey(), distance.prepare(EventMap.centroid(entry.getValue())));
 		}
 		knownCentroids = mapBuilder.build();
 	}
 
 	@Override
 	public List<Pair<String, Double>> analyze(Document unknown) throws AnalyzeException {
-		Histogram unknownHistogram = new EventMap(unknown);
+		return analyze(unknown, null, null);
+	}
+
+	/**
+	 * Only the centroid of known's own author changes when known is left out,
+	 * it is recomputed from that author's other documents and every other centroid is reused
+	 */
+	@Override
+	public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException {
+		String author = known.getAuthor();
+		Collection<SparseHistogram> histograms = new HashSet<SparseHistogram>();
+		for (Document document : knownDocuments.get(author)) {
+			if (!known.equals(document)) {
+				histograms.add(document.getSparseHistogram());
+			}
+		}
+		SparseHistogram centroid = histograms.isEmpty() ? null : distance.prepare(EventMap.centroid(histograms));
+		return analyze(known, author, centroid);
+	}
+
+	/**
+	 * @param author whose centroid is replaced, or null to use the trained centroids as they are
+	 * @param centroid the replacement, or null to leave author out altogether
+	 */
+	private List<Pair<String, Double>> analyze(Document unknown, String author, SparseHistogram centroid) throws AnalyzeException {
+		SparseHistogram unknownHistogram = unknown.getSparseHistogram();
 		List<Pair<String, Double>> result = new ArrayList<Pair<String, Double>>(knownCentroids.size());
-		for (Entry<String, Histogram> knownEntry : knownCentroids.entrySet()) {
+		for (Entry<String, SparseHistogram> knownEntry : knownCentroids.entrySet()) {
+			SparseHistogram knownCentroid = knownEntry.getValue();
+			if (knownEntry.getKey().equals(author)) {
+				if (centroid == null) {
+					continue;
+				}
+				knownCentroid = centroid;
+			}
 			try {
-				double current = distance.distance(unknownHistogram, knownEntry.getValue());
+				double current = distance.distance(unknownHistogram, knownCentroid);
 				logger.debug(unknown.getTitle()+" ("+unknown.getFilePath()+")"+" -> "+knownEntry.getKey()+":"+current);
 				result.add(new Pair<String, Double>(knownEntry.getKey(), current, 2));
 			} catch (DistanceCalculationException e) {
@@ -33,7 +33,7 @@ import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.NeighborAnalysisDriver;
 import com.jgaap.util.Ballot;
 import com.jgaap.util.Document;
-import com.jgaap.util.EventMap;
+import com.jgaap.util.NearestNeighbors;
 import com.jgaap.util.Pair;
 
 /**
@@ -45,13 +45,17 @@ public class KNearestNeighborDriver extends NeighborAnalysisDriver {
 
 	static private Logger logger = Logger.getLogger(KNearestNeighborDriver.class);
 	
-	private ImmutableList<Pair<Document, EventMap>> knowns;
+	private ImmutableList<Document> knowns;
 	
     private static final int DEFAULT_K = 5;
     private static final String DEFAULT_TIE = "lastPicked";
 
     public KNearestNeighborDriver() {
 		addParams("k", "K", "5", new String[] {"1","2","3","4","5","6","7","8","9","10"}, false);
+		addParams("metricIndex", "Index knowns for metric distances", "true", new String[] {"true","false"}, false);
+		addParams("approximate", "Rank only hashed candidates", "false", new String[] {"true","false"}, false);
+		addParams("bands", "Hash bands", "auto", new String[] {"auto","8","16","32","64","128"}, false);
+		addParams("rows", "Hash rows per band", "auto", new String[] {"auto","1","2","3","4","6","8","12","16"}, false);
     }
 
 	public String displayName() {
@@ -66,12 +70,22 @@ public class KNearestNeighborDriver extends NeighborAnalysisDriver {
 		return true;
 	}
 	
-	public void train(List<Document> knowns){
-		ImmutableList.Builder<Pair<Document, EventMap>> builder = ImmutableList.builder();
-		for(Document known : knowns) {
-			builder.add(new Pair<Document, EventMap>(known, new EventMap(known)));
+	public void train(List<Document> knowns) throws AnalyzeException {
+		this.knowns = ImmutableList.copyOf(knowns);
+		prepare(this.knowns);
+		clearIndex();
+		clearHash();
+		if ("true".equalsIgnoreCase(getParameter("approximate", "false"))) {
+			hash(this.knowns, getParameter("bands", 0), getParameter("rows", 0));
+		}
+		if (!isHashed() && "true".equalsIgnoreCase(getParameter("metricIndex", "true"))) {
+			index(this.knowns);
 		}
-		this.knowns = builder.build();
+	}
+
+	@Override
+	public boolean usesDistanceMatrix() {
+		return !distance.isBounded() && !isIndexed() && !isHashed();
 	}
 
 	@Override
@@ -84,19 +98,22 @@ public class KNearestNeighborDriver extends NeighborAnalysisDriver {
         String tieBreaker = getParameter("tieBreaker", DEFAULT_TIE);
 
 		List<Pair<String, Double>> rawResults = new ArrayList<Pair<String,Double>>();
+		NearestNeighbors nearest;
+		try {
+			nearest = nearest(unknown, knowns, k);
+		} catch (DistanceCalculationException e) {
+			logger.error("Distance "+distance.displayName()+" failed", e);
+			throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+		}
 
-		for (int i = 0; i < knowns.size(); i++) {
-			double current;
-			try {
-				current = distance.distance(new EventMap(unknown), knowns.get(i).getSecond());
-			} catch (DistanceCalculationException e) {
-				logger.error("Distance "+distance.displayName()+" failed", e);
-				throw new AnalyzeException("Distance "+distance.displayName()+" failed");
-			}
-            rawResults.add(new Pair<String, Double>(knowns.get(i).getFirst().getAuthor(), current, 2));
-			logger.debug(unknown.getFilePath()+"(Unknown):"+knowns.get(i).getFirst().getFilePath()+"("+knowns.get(i).getFirst().getAuthor()+") Distance:"+current);
+		int[] indices = nearest.indices();
+		double[] distances = nearest.distances();
+		for (int i = 0; i < indices.length; i++) {
+			Document known = knowns.get(indices[i]);
+			double current = distances[i];
+            rawResults.add(new Pair<String, Double>(known.getAuthor(), current, 2));
+			logger.debug(unknown.getFilePath()+"(Unknown):"+known.getFilePath()+"("+known.getAuthor()+") Distance:"+current);
 		}
-		Collections.sort(rawResults);
         for(int i = 0; i < Math.min(k, rawResults.size()); i++) {
             Pair<String, Double> p = rawResults.get(i);
             ballot.vote(p.getFirst(), (1 + Math.pow(2, (-1.0 * (i+1)))));
@@ -12,12 +12,13 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.jgaap.generics.AnalyzeException;
 import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.ValidationDriver;
 import com.jgaap.util.AbsoluteHistogram;
 import com.jgaap.util.Document;
 import com.jgaap.util.Pair;
 
-public class LeaveOneOutAbsoluteCentroidDriver extends ValidationDriver {
+public class LeaveOneOutAbsoluteCentroidDriver extends ValidationDriver implements LeaveOneOutCapable {
 
 	private ImmutableMap<String, AbsoluteHistogram> knownCentroids;
 	private ImmutableMultimap<String, Document> knownDocuments;
@@ -46,7 +47,7 @@ public class LeaveOneOutAbsoluteCentroidDriver extends ValidationDriver {
 		ImmutableMultimap.Builder<String, Document> knownDocumentsBuilder = ImmutableMultimap.builder();
 		Multimap<String, AbsoluteHistogram> knownHistograms = HashMultimap.create();
 		for(Document known : knowns){
-			AbsoluteHistogram AbsoluteHistogram = new AbsoluteHistogram(known);
+			AbsoluteHistogram AbsoluteHistogram = known.getAbsoluteHistogram();
 			knownAbsoluteHistogramsBuilder.put(known, AbsoluteHistogram);
 			knownHistograms.put(known.getAuthor(), AbsoluteHistogram);
 			knownDocumentsBuilder.put(known.getAuthor(), known);
@@ -86,4 +87,12 @@ public class LeaveOneOutAbsoluteCentroidDriver extends ValidationDriver {
 		return results;
 	}
 
+	/**
+	 * analyze already leaves known out of its author's centroid
+	 */
+	@Override
+	public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException {
+		return analyze(known);
+	}
+
 }
@@ -28,19 +28,20 @@ import java.util.List;
 import com.google.common.collect.ImmutableList;
 import com.jgaap.generics.AnalyzeException;
 import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.ValidationDriver;
 import com.jgaap.util.Ballot;
 import com.jgaap.util.Document;
-import com.jgaap.util.EventMap;
+import com.jgaap.util.NearestNeighbors;
 import com.jgaap.util.Pair;
 
 /*KNN LOOCV implementation by @Alejandro Jorge Napolitano Jawerbaum*/
 
-public class LeaveOneOutKNearestNeighborDriver extends ValidationDriver {
+public class LeaveOneOutKNearestNeighborDriver extends ValidationDriver implements LeaveOneOutCapable {
 
 	private java.util.logging.Logger logger =  java.util.logging.Logger.getLogger(LeaveOneOutKNearestNeighborDriver.class.getName());
 	
-	private ImmutableList<Pair<Document, EventMap>> knowns;
+	private ImmutableList<Document> knowns;
 	
     private static final int DEFAULT_K = 5;
     private static final String DEFAULT_TIE = "lastPicked";
@@ -65,11 +66,13 @@ public class LeaveOneOutKNearestNeighborDriver extends ValidationDriver {
 	}
 	@Override
 	public void train(List<Document> knowns){
-		ImmutableList.Builder<Pair<Document, EventMap>> builder = ImmutableList.builder();
-		for(Document known : knowns) {
-			builder.add(new Pair<Document, EventMap>(known, new EventMap(known)));
-		}
-		this.knowns = builder.build();
+		this.knowns = ImmutableList.copyOf(knowns);
+		prepare(this.knowns);
+	}
+
+	@Override
+	public boolean usesDistanceMatrix() {
+		return !distance.isBounded();
 	}
 
 	@Override
@@ -82,21 +85,25 @@ public class LeaveOneOutKNearestNeighborDriver extends ValidationDriver {
         String tieBreaker = getParameter("tieBreaker", DEFAULT_TIE);
 
 		List<Pair<String, Double>> rawResults = new ArrayList<Pair<String,Double>>();
-
-		for (int i = 0; i < knowns.size(); i++) {
-			if(!knowns.get(i).getFirst().equals(unknown)) {
-				double current;
-				try {
-					current = distance.distance(new EventMap(unknown), knowns.get(i).getSecond());
-				} catch (DistanceCalculationException e) {
-					throw new AnalyzeException("Distance "+distance.displayName()+" failed");
-				}
-				rawResults.add(new Pair<String, Double>(knowns.get(i).getFirst().getAuthor(), current, 2));
-				}
+		List<Document> others = new ArrayList<Document>(knowns.size());
+		for (Document known : knowns) {
+			if(!known.equals(unknown))
+				others.add(known);
 			else
 				logger.info("Excluded document that's being tested.");
 		}
-		Collections.sort(rawResults);
+		NearestNeighbors nearest;
+		try {
+			nearest = nearest(unknown, others, k);
+		} catch (DistanceCalculationException e) {
+			throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+		}
+
+		int[] indices = nearest.indices();
+		double[] distances = nearest.distances();
+		for (int i = 0; i < indices.length; i++) {
+			rawResults.add(new Pair<String, Double>(others.get(indices[i]).getAuthor(), distances[i], 2));
+		}
         for(int i = 0; i < Math.min(k, rawResults.size()); i++) {
             Pair<String, Double> p = rawResults.get(i);
             ballot.vote(p.getFirst(), (1 + Math.pow(2, (-1.0 * (i+1)))));
@@ -113,6 +120,14 @@ public class LeaveOneOutKNearestNeighborDriver extends ValidationDriver {
 		return results;
 	}
 
+	/**
+	 * analyze already leaves unknown out of its neighbors
+	 */
+	@Override
+	public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException {
+		return analyze(known);
+	}
+
     private static class LastPickedComparator implements Comparator<Pair<String, Double>>, Serializable {
 
 		private static final long serialVersionUID = 1L;
@@ -21,7 +21,10 @@ package com.jgaap.classifiers;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.jgaap.backend.AnalysisDrivers;
+import com.jgaap.generics.AnalysisDriver;
 import com.jgaap.generics.AnalyzeException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.NonDistanceDependentAnalysisDriver;
 import com.jgaap.util.Document;
 import com.jgaap.util.Pair;
@@ -32,7 +35,7 @@ import com.jgaap.util.Pair;
  * 
  */
 
-public class LeaveOneOutNoDistanceDriver extends NonDistanceDependentAnalysisDriver {
+public class LeaveOneOutNoDistanceDriver extends NonDistanceDependentAnalysisDriver implements LeaveOneOutCapable {
 	private List<Document> knownDocuments = new ArrayList<>();
 
 	@Override
@@ -50,14 +53,29 @@ public class LeaveOneOutNoDistanceDriver extends NonDistanceDependentAnalysisDri
 	    return true;
 	}
 
-	public void train(List<Document> knowns) {
+	public void train(List<Document> knowns) throws AnalyzeException {
 		// Store known documents in a class-level list.
 		knownDocuments = knowns;
 		super.train(knowns);
+		if (analysisDriver instanceof LeaveOneOutCapable) {
+			// the driver can take each document out itself, so it is trained once
+			analysisDriver.setParamGUI(getParamGUI());
+			analysisDriver.train(knowns);
+		}
 	}
 	
     @Override
     public List<Pair<String, Double>> analyze(Document fakeUnknown) throws AnalyzeException {
+    	if (analysisDriver instanceof LeaveOneOutCapable) {
+    		return ((LeaveOneOutCapable) analysisDriver).analyzeLeftOut(fakeUnknown);
+    	}
+    	return retrainAndAnalyze(fakeUnknown);
+    }
+
+    /**
+     * Trains a copy of the driver without fakeUnknown, each fold has its own model so folds can run side by side
+     */
+    private List<Pair<String, Double>> retrainAndAnalyze(Document fakeUnknown) throws AnalyzeException {
     	// Create a temporary list of the known documents that excludes the fake unknown
     	// document. We call this document a fake unknown because it is actually known,
     	// but we want to pretend that it isn't.
@@ -66,11 +84,22 @@ public class LeaveOneOutNoDistanceDriver extends NonDistanceDependentAnalysisDri
     		if(!known.equals(fakeUnknown))
     			knownsTemp.add(known);
     	}
-    	// Set the analysisDriver's parameters.
-    	// Pass the temporary known list and the fake unknown to the analysis driver that this
-    	// driver depends on, and return the result.
-    	analysisDriver.setParamGUI(getParamGUI());
-    	analysisDriver.train(knownsTemp);
-    	return analysisDriver.analyze(fakeUnknown);
+    	// Set the parameters of a copy of the analysisDriver.
+    	// Pass the temporary known list and the fake unknown to the copy of the analysis driver
+    	// that this driver depends on, and return the result.
+    	AnalysisDriver fold;
+    	try {
+    		fold = AnalysisDrivers.copy(analysisDriver);
+    	} catch (Exception e) {
+    		throw new AnalyzeException("Could not copy " + analysisDriver.displayName());
+    	}
+    	fold.setParamGUI(getParamGUI());
+    	fold.train(knownsTemp);
+    	return fold.analyze(fakeUnknown);
+    }
+
+    @Override
+    public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException {
+    	return analyze(known);
     }
 }
@@ -72,7 +72,7 @@ public class MahalanobisDistance extends AnalysisDriver {
 		ImmutableMap.Builder<Document, EventMap> knownHistogramsBuilder = ImmutableMap.builder();
 		List<EventMap> histograms = new ArrayList<EventMap>(knowns.size());
 		for(Document known : knowns){
-			EventMap histogram = new EventMap(known);
+			EventMap histogram = known.getEventMap();
 			eventsBuilder.addAll(histogram.uniqueEvents());
 			histograms.add(histogram);
 			knownHistogramsBuilder.put(known, histogram);
@@ -103,7 +103,7 @@ public class MahalanobisDistance extends AnalysisDriver {
 	@Override
 	public List<Pair<String, Double>> analyze(Document unknown) {
 		List<Pair<String, Double>> results = new ArrayList<Pair<String,Double>>();
-		EventMap histogram = new EventMap(unknown);
+		EventMap histogram = unknown.getEventMap();
 		for(Entry<Document, EventMap> entry : knownHistograms.entrySet()){
 			double[][] tmp = new double[events.size()][1];
 			int i = 0;
@@ -28,9 +28,9 @@ import org.apache.log4j.Logger;
 import com.google.common.collect.ImmutableList;
 import com.jgaap.generics.AnalyzeException;
 import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.LeaveOneOutCapable;
 import com.jgaap.generics.NeighborAnalysisDriver;
 import com.jgaap.util.Document;
-import com.jgaap.util.EventMap;
 import com.jgaap.util.Pair;
 
 /**
@@ -38,11 +38,17 @@ import com.jgaap.util.Pair;
  * distance/divergence function.
  * 
  */
-public class NearestNeighborDriver extends NeighborAnalysisDriver {
+public class NearestNeighborDriver extends NeighborAnalysisDriver implements LeaveOneOutCapable {
 
 	private Logger logger = Logger.getLogger(NearestNeighborDriver.class);
 	
-	private ImmutableList<Pair<Document, EventMap>> knowns;
+	private ImmutableList<Document> knowns;
+	
+	public NearestNeighborDriver() {
+		addParams("approximate", "Rank only hashed candidates", "false", new String[] {"true","false"}, false);
+		addParams("bands", "Hash bands", "auto", new String[] {"auto","8","16","32","64","128"}, false);
+		addParams("rows", "Hash rows per band", "auto", new String[] {"auto","1","2","3","4","6","8","12","16"}, false);
+	}
 	
 	public String displayName() {
 		return "Nearest Neighbor Driver" + getDistanceName();
@@ -57,27 +63,56 @@ public class NearestNeighborDriver extends NeighborAnalysisDriver {
 	}
 	
 	public void train(List<Document> knowns){
-		ImmutableList.Builder<Pair<Document, EventMap>> builder = ImmutableList.builder();
-		for(Document known : knowns) {
-			builder.add(new Pair<Document, EventMap>(known, new EventMap(known)));
+		this.knowns = ImmutableList.copyOf(knowns);
+		prepare(this.knowns);
+		if ("true".equalsIgnoreCase(getParameter("approximate", "false"))) {
+			hash(this.knowns, getParameter("bands", 0), getParameter("rows", 0));
+		} else {
+			clearHash();
 		}
-		this.knowns = builder.build();
+	}
+
+	@Override
+	public boolean usesDistanceMatrix() {
+		return !isHashed();
 	}
 
 	@Override
 	public List<Pair<String, Double>> analyze(Document unknown) throws AnalyzeException {
-		List<Pair<String, Double>> results = new ArrayList<Pair<String,Double>>();
+		return analyze(unknown, null);
+	}
 
-		for (Pair<Document, EventMap> known : knowns){
-			try {
-				double current = distance.distance(new EventMap(unknown), known.getSecond());
-				results.add(new Pair<String, Double>(known.getFirst().getAuthor() + " -" + known.getFirst().getFilePath(),current,2));
-				logger.debug(unknown.getFilePath()+"(Unknown) -> "+known.getFirst().getFilePath()+"("+known.getFirst().getAuthor()+") Distance:"+current);
-			} catch (DistanceCalculationException e) {
-				logger.error("Distance "+distance.displayName()+" failed", e);
-				throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+	/**
+	 * Ranks the knowns other than known, as if train had been given them alone
+	 */
+	@Override
+	public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException {
+		return analyze(known, known);
+	}
+
+	private List<Pair<String, Double>> analyze(Document unknown, Document leftOut) throws AnalyzeException {
+		List<Pair<String, Double>> results = new ArrayList<Pair<String,Double>>();
+		int[] candidates = candidates(unknown, knowns, leftOut == null ? 1 : 2);
+		List<Document> neighbors = new ArrayList<Document>(candidates.length);
+		for (int i : candidates) {
+			if (leftOut == null || !leftOut.equals(knowns.get(i))) {
+				neighbors.add(knowns.get(i));
 			}
 		}
+		double[] distances;
+		try {
+			distances = distances(unknown, neighbors);
+		} catch (DistanceCalculationException e) {
+			logger.error("Distance "+distance.displayName()+" failed", e);
+			throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+		}
+
+		for (int i = 0; i < neighbors.size(); i++){
+			Document known = neighbors.get(i);
+			double current = distances[i];
+			results.add(new Pair<String, Double>(known.getAuthor() + " -" + known.getFilePath(),current,2));
+			logger.debug(unknown.getFilePath()+"(Unknown) -> "+known.getFilePath()+"("+known.getAuthor()+") Distance:"+current);
+		}
 		Collections.sort(results);
 		return results;
 	}
@@ -48,7 +48,7 @@ public class NullHistAnalysis extends AnalysisDriver {
 		int count = 0;
 		for(Document known : knowns){
 			count++;
-			EventMap eventMap = new EventMap(known);
+			EventMap eventMap = known.getEventMap();
 			System.out.println("--- Known Event Set #" + count + " ---");
             for(Event event : eventMap.uniqueEvents()){
             	System.out.println("'"+event.getEvent().replaceAll("'", "\\'")+"','"+eventMap.relativeFrequency(event)+"',");
@@ -58,7 +58,7 @@ public class NullHistAnalysis extends AnalysisDriver {
 	
     @Override
     public List<Pair<String, Double>> analyze(Document unknown) {
-        EventMap eventMap = new EventMap(unknown);
+        EventMap eventMap = unknown.getEventMap();
         System.out.println("--- Unknown Event Set ---");
         for(Event event : eventMap.uniqueEvents()){
         	System.out.println("'"+event.getEvent().replaceAll("'", "\\'")+"','"+eventMap.relativeFrequency(event)+"',");
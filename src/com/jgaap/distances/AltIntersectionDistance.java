@@ -22,6 +22,7 @@ package com.jgaap.distances;
 import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Given two event type-sets, A,B, calculate 1 - ||A intersect B|| // ||A union B||
@@ -57,4 +58,30 @@ public class AltIntersectionDistance extends DistanceFunction{
 		double intersectioncount = Sets.intersection(unknownHistogram.uniqueEvents(), knownHistogram.uniqueEvents()).size();
 		return 1/(intersectioncount+1);
 	}
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		double intersectioncount = 0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownFrequencies[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownFrequencies[j++];
+			} else {
+				unknown = unknownFrequencies[i++];
+				known = knownFrequencies[j++];
+			}
+			if (unknown != 0.0 && known != 0.0) {
+				intersectioncount++;
+			}
+		}
+		return 1/(intersectioncount+1);
+	}
 }
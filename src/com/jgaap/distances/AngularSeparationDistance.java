@@ -7,6 +7,8 @@ import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Angular Separation Distance
@@ -50,4 +52,38 @@ public class AngularSeparationDistance extends DistanceFunction {
 		return distance;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		// the sums are kept on the histograms, only shared events add to sumNumer
+		double sumNumer = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				sumNumer += unknownFrequencies[i++] * knownFrequencies[j++];
+			}
+		}
+		double sumUnknown = unknownHistogram.getSum();
+		double sumKnown = knownHistogram.getSum();
+		return 1 - (sumNumer / Math.sqrt(sumUnknown * sumUnknown * sumKnown * sumKnown));
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSum();
+		return prepared;
+	}
+
+	@Override
+	public LocalitySensitiveIndex.Family getHashFamily() {
+		return LocalitySensitiveIndex.Family.SIMHASH;
+	}
 }
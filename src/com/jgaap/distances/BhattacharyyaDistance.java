@@ -7,6 +7,7 @@ import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Bhattacharyya Distance
@@ -46,4 +47,31 @@ public class BhattacharyyaDistance extends DistanceFunction {
 		return distance;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownSquareRoots = unknownHistogram.getSquareRoots();
+		double[] knownSquareRoots = knownHistogram.getSquareRoots();
+		// only events in both histograms add to the coefficient
+		double distance = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				distance += unknownSquareRoots[i++] * knownSquareRoots[j++];
+			}
+		}
+		return -Math.log(distance);
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSquareRoots();
+		return prepared;
+	}
 }
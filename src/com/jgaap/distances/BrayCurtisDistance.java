@@ -6,6 +6,7 @@ import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Bray Curtis Distance
@@ -49,4 +50,28 @@ public class BrayCurtisDistance extends DistanceFunction {
 		return distance;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		double sumNumer = 0.0, sumDenom = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownFrequencies[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownFrequencies[j++];
+			} else {
+				unknown = unknownFrequencies[i++];
+				known = knownFrequencies[j++];
+			}
+			sumNumer += Math.abs(unknown - known);
+			sumDenom += unknown + known;
+		}
+		return sumNumer / sumDenom;
+	}
 }
@@ -7,6 +7,7 @@ import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Chord Distance
@@ -50,4 +51,33 @@ public class ChordDistance extends DistanceFunction {
 		return distance;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		// the sums are kept on the histograms, only shared events add to sumNumer
+		double sumNumer = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				sumNumer += unknownFrequencies[i++] * knownFrequencies[j++];
+			}
+		}
+		double sumUnknown = unknownHistogram.getSum();
+		double sumKnown = knownHistogram.getSum();
+		return Math.sqrt(2 - 2 * (sumNumer / Math.sqrt(sumUnknown * sumUnknown * sumKnown * sumKnown)));
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSum();
+		return prepared;
+	}
 }
@@ -25,6 +25,8 @@ import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Cosine Distance or normalized dot product. This is YA distance for Nearest
@@ -76,4 +78,37 @@ public class CosineDistance extends DistanceFunction {
 
         return Math.abs((distance / (Math.sqrt(h1Magnitude * h2Magnitude))) - 1);
     }
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		// the magnitudes are kept on the histograms, only shared events add to the dot product
+		double distance = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				distance += unknownFrequencies[i++] * knownFrequencies[j++];
+			}
+		}
+		return Math.abs((distance / (Math.sqrt(unknownHistogram.getSumOfSquares() * knownHistogram.getSumOfSquares()))) - 1);
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSumOfSquares();
+		return prepared;
+	}
+
+	@Override
+	public LocalitySensitiveIndex.Family getHashFamily() {
+		return LocalitySensitiveIndex.Family.SIMHASH;
+	}
 }
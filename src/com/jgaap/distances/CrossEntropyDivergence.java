@@ -22,6 +22,7 @@ package com.jgaap.distances;
 import com.jgaap.generics.DivergenceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Cross-entropy "divergence" for Nearest Neighbor. It's actually a rather poor
@@ -64,5 +65,31 @@ public class CrossEntropyDivergence extends DivergenceFunction {
         return distance;
     }
 
-	
+	@Override
+	public double divergence(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownLogarithms = knownHistogram.getLogarithms();
+		// events missing from the unknown have frequency 0 and add nothing
+		double distance = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				distance += -1 * (unknownFrequencies[i++] * knownLogarithms[j++]);
+			}
+		}
+		return distance;
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getLogarithms();
+		return prepared;
+	}
 }
@@ -6,6 +6,7 @@ import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 public class HellingerDistance extends DistanceFunction {
 
@@ -36,4 +37,39 @@ public class HellingerDistance extends DistanceFunction {
 		return Math.sqrt(sum)*oneOverSqrtTwo;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownSquareRoots = unknownHistogram.getSquareRoots();
+		double[] knownSquareRoots = knownHistogram.getSquareRoots();
+		double sum = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownSquareRoots[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownSquareRoots[j++];
+			} else {
+				unknown = unknownSquareRoots[i++];
+				known = knownSquareRoots[j++];
+			}
+			sum += (unknown - known) * (unknown - known);
+		}
+		return Math.sqrt(sum)*oneOverSqrtTwo;
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSquareRoots();
+		return prepared;
+	}
+
+	@Override
+	public boolean isMetric() {
+		return true;
+	}
 }
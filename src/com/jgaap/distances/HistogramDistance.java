@@ -25,6 +25,7 @@ import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Histogram distance using L2 metric,(defined as D(x,y) = sum ((xi -yi)^2) This
@@ -68,4 +69,41 @@ public class HistogramDistance extends DistanceFunction {
 
 		return distance;
 	}
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		return distance(unknownHistogram, knownHistogram, Double.POSITIVE_INFINITY);
+	}
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram, double bound) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		double distance = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownFrequencies[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownFrequencies[j++];
+			} else {
+				unknown = unknownFrequencies[i++];
+				known = knownFrequencies[j++];
+			}
+			distance += Math.pow(unknown - known, 2);
+			if (distance > bound) {
+				return distance;
+			}
+		}
+		return distance;
+	}
+
+	@Override
+	public boolean isBounded() {
+		return true;
+	}
 }
@@ -22,6 +22,8 @@ package com.jgaap.distances;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Given two event type-sets, A,B, calculate 1 - ||A intersect B|| // ||A union B||
@@ -74,4 +76,37 @@ public class IntersectionDistance extends DistanceFunction{
 		}
 		return 1.0 - intersectioncount / unioncount;
 	}
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		double intersectioncount = 0;
+		double unioncount = 0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownFrequencies[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownFrequencies[j++];
+			} else {
+				unknown = unknownFrequencies[i++];
+				known = knownFrequencies[j++];
+			}
+			unioncount++;
+			if (unknown != 0.0 && known != 0.0) {
+				intersectioncount++;
+			}
+		}
+		return 1.0 - intersectioncount / unioncount;
+	}
+
+	@Override
+	public LocalitySensitiveIndex.Family getHashFamily() {
+		return LocalitySensitiveIndex.Family.MINHASH;
+	}
 }
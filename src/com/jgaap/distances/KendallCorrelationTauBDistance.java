@@ -13,6 +13,7 @@ import java.util.Set;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.KendallTau;
 import com.jgaap.util.Pair;
 
 /**
@@ -142,9 +143,9 @@ public class KendallCorrelationTauBDistance extends DistanceFunction {
 							}));
 		}
 		//System.err.println("5");
-		List<Integer> y = new ArrayList<Integer>(ranks.size());
-		for(Pair<Integer, Integer> current : ranks){
-			y.add(current.getSecond());
+		int[] y = new int[ranks.size()];
+		for(int i = 0; i < y.length; i++){
+			y[i] = ranks.get(i).getSecond();
 		}
 		//System.err.println("5.1");
 		Collections.sort(ranks);
@@ -181,59 +182,10 @@ public class KendallCorrelationTauBDistance extends DistanceFunction {
 		}
 
 		//System.err.println("n0 "+n0+" n1 "+n1+" n2 "+n2+" n3"+n3);
-//		int swaps = swaps(y);
 		//System.err.println(swaps);
-		double result = (n0-n1-n2+n3-2*swaps(y));
+		double result = (n0-n1-n2+n3-2*KendallTau.inversions(y));
 		result = result/Math.sqrt((n0-n1)*(n0-n2));
 		return 1-result;
 	}
 	
-//	private int swapCounter = 0;
-//	private int mergeCounter = 0;
-	
-	private int swaps(List<Integer> list){
-//		swapCounter++;
-		if (list.size()<=1){
-			return 0;
-		}
-		int middle = list.size()/2;
-
-		List<Integer> left = list.subList(0, middle);
-		List<Integer> right = list.subList(middle, list.size());
-		//System.err.println("a");
-		int tmp = swaps(left)+swaps(right);
-		Collections.sort(left);
-		Collections.sort(right);
-		//System.err.println("b");
-		int merge = merge(left, right);
-		//System.err.println("mergers:"+merge);
-		//System.err.println(merge+tmp);
-		return tmp+merge;
-	}
-	
-	private int merge(List<Integer> left, List<Integer> right){
-//		mergeCounter++;
-		int totalLength = left.size()+right.size();
-		int i =0;
-		int j =0;
-		int swaps = 0;
-		//System.err.println("I");
-		//System.err.println("left:"+left.size()+" right:"+right.size()+" i:"+i+" j:"+j+" swaps:"+swaps);
-		while((i+j)<totalLength&&j<right.size()){
-			//System.out.println(right.get(j));
-			if(i>=left.size() 
-					|| right.get(j)
-					<left.get(i)){
-				swaps += left.size()-(i);
-				j++;
-			} else {
-				i++;
-			}
-			//System.err.println("left:"+left.size()+" right:"+right.size()+" i:"+i+" j:"+j+" swaps:"+swaps);
-		}
-		//System.err.println("II");
-		//System.err.println("left:"+left.size()+" right:"+right.size()+" i:"+i+" j:"+j+" swaps:"+swaps);
-		return swaps;
-	}
-	
 }
@@ -22,6 +22,7 @@ package com.jgaap.distances;
 import com.jgaap.generics.DivergenceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Kullback-Leibler divergence, to be treated as YA distance for
@@ -66,4 +67,34 @@ public class KullbackLeiblerDivergence extends DivergenceFunction {
         }
         return Math.abs(distance);
     }
+
+	@Override
+	public double divergence(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] unknownLogarithms = unknownHistogram.getLogarithms();
+		double[] knownLogarithms = knownHistogram.getLogarithms();
+		double distance = 0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				distance += unknownFrequencies[i] * (unknownLogarithms[i] - knownLogarithms[j]);
+				i++;
+				j++;
+			}
+		}
+		return Math.abs(distance);
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getLogarithms();
+		return prepared;
+	}
 }
@@ -25,6 +25,7 @@ import com.google.common.collect.Sets;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * PearsonCorrelationDistance : Parametric equivalent of
@@ -133,4 +134,49 @@ public class PearsonCorrelationDistance extends DistanceFunction {
 		return 1.0 - correlation;
 				
     }
+
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		// the sums over one histogram are kept on it, only shared events add to sigXY
+		int shared = 0;
+		double sigXY = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length && j < knownKeys.length) {
+			if (unknownKeys[i] < knownKeys[j]) {
+				i++;
+			} else if (knownKeys[j] < unknownKeys[i]) {
+				j++;
+			} else {
+				sigXY += unknownFrequencies[i++] * knownFrequencies[j++];
+				shared++;
+			}
+		}
+		int n = unknownKeys.length + knownKeys.length - shared;
+		double sigX = unknownHistogram.getSum();
+		double sigY = knownHistogram.getSum();
+		double sigX2 = unknownHistogram.getSumOfSquares();
+		double sigY2 = knownHistogram.getSumOfSquares();
+
+		// same as above
+		double denom1 = sigX2 - (sigX * sigX)/n;
+		double denom2 = sigY2 - (sigY * sigY)/n;
+		if (Math.abs(denom1) < 0.000001 &&
+		    Math.abs(denom2) < 0.000001) return 0;
+		if (Math.abs(denom1) < 0.000001 ||
+		    Math.abs(denom2) < 0.000001) return 1;
+		double correlation = (sigXY-(sigX*sigY)/n) /
+			Math.sqrt(denom1 * denom2);
+		return 1.0 - correlation;
+	}
+
+	@Override
+	public SparseHistogram prepare(Histogram histogram) {
+		SparseHistogram prepared = SparseHistogram.of(histogram);
+		prepared.getSumOfSquares();
+		return prepared;
+	}
 }
@@ -7,6 +7,8 @@ import com.jgaap.generics.DistanceCalculationException;
 import com.jgaap.generics.DistanceFunction;
 import com.jgaap.util.Event;
 import com.jgaap.util.Histogram;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * Soergle Distance
@@ -52,4 +54,33 @@ public class SoergleDistance extends DistanceFunction {
 		return distance;
 	}
 
+	@Override
+	public double distance(SparseHistogram unknownHistogram, SparseHistogram knownHistogram) {
+		long[] unknownKeys = unknownHistogram.getKeys();
+		long[] knownKeys = knownHistogram.getKeys();
+		double[] unknownFrequencies = unknownHistogram.getFrequencies();
+		double[] knownFrequencies = knownHistogram.getFrequencies();
+		double sumNumer = 0.0, sumDenom = 0.0;
+		int i = 0, j = 0;
+		while (i < unknownKeys.length || j < knownKeys.length) {
+			double unknown = 0.0;
+			double known = 0.0;
+			if (j == knownKeys.length || (i < unknownKeys.length && unknownKeys[i] < knownKeys[j])) {
+				unknown = unknownFrequencies[i++];
+			} else if (i == unknownKeys.length || knownKeys[j] < unknownKeys[i]) {
+				known = knownFrequencies[j++];
+			} else {
+				unknown = unknownFrequencies[i++];
+				known = knownFrequencies[j++];
+			}
+			sumNumer += Math.abs(unknown - known);
+			sumDenom += Math.max(unknown, known);
+		}
+		return sumNumer / sumDenom;
+	}
+
+	@Override
+	public LocalitySensitiveIndex.Family getHashFamily() {
+		return LocalitySensitiveIndex.Family.MINHASH;
+	}
 }
@@ -20,8 +20,8 @@
 package com.jgaap.eventDrivers;
 
 import com.jgaap.generics.EventDriver;
-import com.jgaap.util.Event;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
 
 
 /**
@@ -59,9 +59,9 @@ public class CharacterEventDriver extends EventDriver {
 	 */
 	@Override
 	public EventSet createEventSet(char[] text) {
-		EventSet es = new EventSet();
+		IndexedEventSet es = new IndexedEventSet(getEventDictionary(), text.length);
 		for (int j = 0; j < text.length; j++) {
-			es.addEvent(new Event(text[j], this));
+			es.addEvent(Character.toString(text[j]));
 		}
 		return es;
 	}
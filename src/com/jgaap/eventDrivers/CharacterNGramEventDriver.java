@@ -20,8 +20,8 @@
 package com.jgaap.eventDrivers;
 
 import com.jgaap.generics.EventDriver;
-import com.jgaap.util.Event;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
 
 /**
  * Extract character N-grams as features.
@@ -61,9 +61,9 @@ public class CharacterNGramEventDriver extends EventDriver {
 	@Override
 	public EventSet createEventSet(char[] text) {
 		int n = getParameter("N", 10);
-		EventSet eventSet = new EventSet(text.length);
+		IndexedEventSet eventSet = new IndexedEventSet(getEventDictionary(), text.length);
 		for (int i = 0; i <= text.length - n; i++) {
-			eventSet.addEvent(new Event(new String(text, i, n), this));
+			eventSet.addEvent(new String(text, i, n));
 		}
 		return eventSet;
 	}
@@ -20,8 +20,8 @@
 package com.jgaap.eventDrivers;
 
 import com.jgaap.generics.EventDriver;
-import com.jgaap.util.Event;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
 
 /**
  * Extract whitespace-separated words (including punctuation) as features.
@@ -45,13 +45,13 @@ public class NaiveWordEventDriver extends EventDriver {
 
 	@Override
 	public EventSet createEventSet(char[] text) {
-		EventSet es = new EventSet();
+		IndexedEventSet es = new IndexedEventSet(getEventDictionary());
 		String current = new String(text);
 		// \s is shorthand for whitespace, remember the \\ to get the \
 		String[] result = current.split("\\s+");
 		for (int j = 0; j < result.length; j++) {
 			if (result[j].length() > 0) {
-				es.addEvent(new Event(result[j], this));
+				es.addEvent(result[j]);
 			}
 		}
 		return es;
@@ -20,6 +20,8 @@
 package com.jgaap.generics;
 
 import com.jgaap.util.Histogram;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * This is an abstract class for distance functions. It is used, for example, in
@@ -41,6 +43,79 @@ abstract public class DistanceFunction extends Parameterizable implements Compar
      */
     abstract public double distance(Histogram histogram1, Histogram histogram2) throws DistanceCalculationException;
 
+    /**
+     * Returns (as double) the distance between two sparse histograms.
+     * Distances that can be computed in a single merge of the sorted keys
+     * override this, everything else falls back to distance(Histogram, Histogram).
+     *
+     * @param histogram1
+     *            The first SparseHistogram
+     * @param histogram2
+     *            The second SparseHistogram
+     * @return the same value distance(Histogram, Histogram) would return
+     */
+    public double distance(SparseHistogram histogram1, SparseHistogram histogram2) throws DistanceCalculationException {
+    	return distance((Histogram) histogram1, (Histogram) histogram2);
+    }
+
+    /**
+     * Converts histogram to the SparseHistogram the sparse distance methods read and
+     * computes up front whatever this distance derives from a single histogram
+     * (sums, square roots, logarithms) so that it is not redone for every unknown.
+     * Drivers prepare their knowns and centroids once in train.
+     *
+     * @param histogram
+     *            a known histogram or centroid
+     * @return histogram as a SparseHistogram ready for this distance
+     */
+    public SparseHistogram prepare(Histogram histogram) {
+    	return SparseHistogram.of(histogram);
+    }
+
+    /**
+     * Returns the distance between two sparse histograms if it is no larger than bound.
+     * Distances that are sums of non negative terms may stop as soon as the partial
+     * sum passes bound and return that partial sum instead, see isBounded.
+     *
+     * @param histogram1
+     *            The first SparseHistogram
+     * @param histogram2
+     *            The second SparseHistogram
+     * @param bound
+     *            distances larger than this are of no interest to the caller
+     * @return the distance if it is at most bound, otherwise some value larger than bound
+     */
+    public double distance(SparseHistogram histogram1, SparseHistogram histogram2, double bound) throws DistanceCalculationException {
+    	return distance(histogram1, histogram2);
+    }
+
+    /**
+     * @return true if distance(SparseHistogram, SparseHistogram, double) can stop early
+     */
+    public boolean isBounded() {
+    	return false;
+    }
+
+    /**
+     * A metric is symmetric, zero only between identical histograms and
+     * satisfies the triangle inequality, which is what VantagePointTree relies on.
+     *
+     * @return true if this distance is a true metric
+     */
+    public boolean isMetric() {
+    	return false;
+    }
+
+    /**
+     * Histograms this distance calls near should collide often under the returned
+     * family of hashes, which lets LocalitySensitiveIndex pick candidate neighbors.
+     *
+     * @return the hash family tracking this distance, or null if there is none
+     */
+    public LocalitySensitiveIndex.Family getHashFamily() {
+    	return null;
+    }
+
 
     public int compareTo(DistanceFunction o){
     	return displayName().compareTo(o.displayName());
@@ -18,6 +18,7 @@
 package com.jgaap.generics;
 
 import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * 
@@ -34,7 +35,26 @@ public abstract class DivergenceFunction extends DistanceFunction {
 	}
 	
 	@Override
-	public double distance(Histogram histogram1, Histogram histogram2) throws DistanceCalculationException {
+	public double distance(final Histogram histogram1, final Histogram histogram2) throws DistanceCalculationException {
+		return distance(new Direction() {
+			@Override
+			public double divergence(boolean reverse) throws DistanceCalculationException {
+				return reverse ? DivergenceFunction.this.divergence(histogram2, histogram1) : DivergenceFunction.this.divergence(histogram1, histogram2);
+			}
+		});
+	}
+
+	@Override
+	public double distance(final SparseHistogram histogram1, final SparseHistogram histogram2) throws DistanceCalculationException {
+		return distance(new Direction() {
+			@Override
+			public double divergence(boolean reverse) throws DistanceCalculationException {
+				return reverse ? DivergenceFunction.this.divergence(histogram2, histogram1) : DivergenceFunction.this.divergence(histogram1, histogram2);
+			}
+		});
+	}
+
+	private double distance(Direction direction) throws DistanceCalculationException {
 		double dist;
 		double first;
 		double second;
@@ -42,36 +62,52 @@ public abstract class DivergenceFunction extends DistanceFunction {
 				"divergenceType", "STANDARD").toUpperCase());
 		switch (divergenceType.ordinal()) {
 		case 1:
-			dist = (divergence(histogram1, histogram2) + divergence(histogram2, histogram1)) / 2.0;
+			dist = (direction.divergence(false) + direction.divergence(true)) / 2.0;
 			break;
 		case 2:
-			first = divergence(histogram1, histogram2);
-			second = divergence(histogram1, histogram2);
+			first = direction.divergence(false);
+			second = direction.divergence(false);
 			dist = (first > second ? first : second);
 			break;
 		case 3:
-			first = divergence(histogram1, histogram2);
-			second = divergence(histogram1, histogram2);
+			first = direction.divergence(false);
+			second = direction.divergence(false);
 			dist = (first < second ? first : second);
 			break;
 		case 4:
-			dist = divergence(histogram2, histogram1);
+			dist = direction.divergence(true);
 			break;
 		case 5:
-			first = divergence(histogram1, histogram2);
-			second = divergence(histogram1, histogram2);
+			first = direction.divergence(false);
+			second = direction.divergence(false);
 			dist = first * second;
             break;
 		case 0:
 		default:
-			dist = divergence(histogram1, histogram2);
+			dist = direction.divergence(false);
 			break;
 		}
 		return dist;
 	}
 
+	/**
+	 * One of the two divergences between a pair of histograms
+	 */
+	private interface Direction {
+		double divergence(boolean reverse) throws DistanceCalculationException;
+	}
+
 	abstract protected double divergence(Histogram histogram1, Histogram histogram2) throws DistanceCalculationException;
 
+	/**
+	 * The divergence between two sparse histograms, divergences that can be
+	 * computed in a single merge of the sorted keys override this
+	 * @return the same value divergence(Histogram, Histogram) would return
+	 */
+	protected double divergence(SparseHistogram histogram1, SparseHistogram histogram2) throws DistanceCalculationException {
+		return divergence((Histogram) histogram1, (Histogram) histogram2);
+	}
+
 	@Override
 	abstract public boolean showInGUI();
 
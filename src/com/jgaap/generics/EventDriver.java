@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import com.jgaap.util.EventDictionary;
 import com.jgaap.util.EventSet;
 
 /**
@@ -38,6 +39,8 @@ public abstract class EventDriver extends Parameterizable implements Comparable<
 	
 	private List<EventCuller> cullers;
 	
+	private volatile EventDictionary eventDictionary;
+	
 	public String longDescription() { return tooltipText(); }
 
     /**
@@ -50,6 +53,26 @@ public abstract class EventDriver extends Parameterizable implements Comparable<
      */
     abstract public EventSet createEventSet(char[] text) throws EventGenerationException;
     
+    /**
+     * The symbol table shared by every EventSet this EventDriver generates.
+     * Events are interned to ints here so documents only store ids.
+     * 
+     * @return the EventDictionary owned by this EventDriver
+     */
+    public EventDictionary getEventDictionary() {
+    	EventDictionary dictionary = eventDictionary;
+    	if(dictionary == null) {
+    		synchronized (this) {
+    			dictionary = eventDictionary;
+    			if(dictionary == null) {
+    				dictionary = new EventDictionary(this);
+    				eventDictionary = dictionary;
+    			}
+    		}
+    	}
+    	return dictionary;
+    }
+    
     public int compareTo(EventDriver o){
     	return displayName().compareTo(o.displayName());
     }
@@ -23,6 +23,7 @@ import java.util.Set;
 import com.google.common.collect.ImmutableSet;
 import com.jgaap.util.Event;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
 
 /**
  * Filter Event Culling abstract parent class.
@@ -44,7 +45,12 @@ public abstract class FilterEventCuller extends EventCuller {
     }
     
     public EventSet cull(EventSet eventSet) {
-    	EventSet reducedEventSet = new EventSet();
+    	EventSet reducedEventSet;
+    	if(eventSet instanceof IndexedEventSet) {
+    		reducedEventSet = new IndexedEventSet(((IndexedEventSet) eventSet).getDictionary());
+    	} else {
+    		reducedEventSet = new EventSet();
+    	}
     	for(Event event : eventSet){
     		if(events.contains(event)){
     			reducedEventSet.addEvent(event);
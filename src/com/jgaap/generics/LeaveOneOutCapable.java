@@ -0,0 +1,45 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import java.util.List;
+
+import com.jgaap.util.Document;
+import com.jgaap.util.Pair;
+
+/**
+ * An AnalysisDriver that, once trained on every known Document, can analyze
+ * one of them as if it had been left out of training. Leave one out
+ * validation then trains once instead of once per Document, and the held
+ * out Documents can be analyzed concurrently.
+ *
+ * @since 8.0.3
+ */
+public interface LeaveOneOutCapable {
+
+	/**
+	 * Analyzes known with its own contribution to the trained model taken out.
+	 * Like analyze this may be called from several threads at once.
+	 *
+	 * @param known
+	 *            one of the Documents passed to train
+	 * @return the same results train without known followed by analyze would give
+	 * @throws AnalyzeException
+	 */
+	public List<Pair<String, Double>> analyzeLeftOut(Document known) throws AnalyzeException;
+}
@@ -1,7 +1,7 @@
 package com.jgaap.generics;
 
-import com.jgaap.util.Event;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
 
 public abstract class NGramEventDriver extends EventDriver {
 
@@ -16,10 +16,9 @@ public abstract class NGramEventDriver extends EventDriver {
 	
 	protected EventSet transformToNgram(EventSet eventSet) {
 		int n = getParameter("n", 2);
-		EventSet ngramEventSet = new EventSet(eventSet.size());
+		IndexedEventSet ngramEventSet = new IndexedEventSet(getEventDictionary(), eventSet.size());
 		for(int i = 0; i+n <= eventSet.size(); i++){
-			Event event = new Event(eventSet.subList(i, i+n).toString(), this);
-			ngramEventSet.addEvent(event);
+			ngramEventSet.addEvent(eventSet.subList(i, i+n).toString());
 		}
 		return ngramEventSet;
 	}
@@ -16,6 +16,17 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package com.jgaap.generics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jgaap.util.DistanceMatrix;
+import com.jgaap.util.Document;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.NearestNeighbors;
+import com.jgaap.util.SparseHistogram;
+import com.jgaap.util.VantagePointTree;
+
 /**
  * 
  * Abstract super type for Analysis Drivers that take a Distance Function 
@@ -29,6 +40,17 @@ public abstract class NeighborAnalysisDriver extends AnalysisDriver {
 
 	public DistanceFunction distance;
 	
+	private DistanceMatrix distanceMatrix;
+	
+	/** below this many knowns a linear scan is as quick as building and searching a tree */
+	private static final int MIN_INDEXED_KNOWNS = 64;
+	
+	private VantagePointTree vantagePointTree;
+	private List<Document> indexedKnowns;
+	
+	private LocalitySensitiveIndex localitySensitiveIndex;
+	private List<Document> hashedKnowns;
+	
 	public void setDistance(DistanceFunction distance){
 		this.distance = distance;
 	}
@@ -37,6 +59,195 @@ public abstract class NeighborAnalysisDriver extends AnalysisDriver {
 		return distance;
 	}
 	
+	/**
+	 * Share the distances computed during one run with other drivers, null to compute every distance
+	 * @param distanceMatrix
+	 */
+	public void setDistanceMatrix(DistanceMatrix distanceMatrix){
+		this.distanceMatrix = distanceMatrix;
+	}
+	
+	public DistanceMatrix getDistanceMatrix(){
+		return distanceMatrix;
+	}
+	
+	/**
+	 * Drivers that compare the unknown directly against each known Document
+	 * (rather than against centroids or samples) return true so that the
+	 * distances can be filled in ahead of analyze
+	 * @return true if analyze reads its distances through distances(Document, List)
+	 */
+	public boolean usesDistanceMatrix(){
+		return false;
+	}
+	
+	/**
+	 * Lets the distance compute what it needs from each known histogram once, ahead of analyze
+	 * @param knowns
+	 */
+	protected void prepare(List<Document> knowns) {
+		for(Document known : knowns){
+			distance.prepare(known.getSparseHistogram());
+		}
+	}
+	
+	/**
+	 * @param unknown
+	 * @param knowns
+	 * @return the distance from unknown to each of knowns, from the DistanceMatrix if there is one
+	 * @throws DistanceCalculationException
+	 */
+	protected double[] distances(Document unknown, List<Document> knowns) throws DistanceCalculationException {
+		if(distanceMatrix != null){
+			return distanceMatrix.row(unknown, knowns, distance);
+		}
+		SparseHistogram unknownHistogram = unknown.getSparseHistogram();
+		double[] distances = new double[knowns.size()];
+		for(int i = 0; i < distances.length; i++){
+			distances[i] = distance.distance(unknownHistogram, knowns.get(i).getSparseHistogram());
+		}
+		return distances;
+	}
+	
+	/**
+	 * Finds the k knowns nearest to unknown.
+	 * When the distance can be bounded and this driver does not read the DistanceMatrix
+	 * each distance is abandoned as soon as it can no longer beat the current k-th nearest.
+	 * When knowns were hashed only the candidates colliding with unknown are looked at.
+	 * @param unknown
+	 * @param knowns
+	 * @param k
+	 * @return the indices into knowns of the k nearest and their distances
+	 * @throws DistanceCalculationException
+	 */
+	protected NearestNeighbors nearest(Document unknown, List<Document> knowns, int k) throws DistanceCalculationException {
+		if(vantagePointTree != null && indexedKnowns == knowns){
+			return vantagePointTree.nearest(unknown.getSparseHistogram(), k, null);
+		}
+		NearestNeighbors nearest = new NearestNeighbors(k);
+		if(localitySensitiveIndex != null && hashedKnowns == knowns){
+			int[] candidates = candidates(unknown, knowns, k);
+			if(candidates.length < knowns.size()){
+				SparseHistogram unknownHistogram = unknown.getSparseHistogram();
+				for(int i : candidates){
+					if(distanceMatrix != null){
+						nearest.offer(i, distanceMatrix.distance(unknown, knowns.get(i), distance));
+					} else {
+						nearest.offer(i, distance.distance(unknownHistogram, knowns.get(i).getSparseHistogram(), nearest.bound()));
+					}
+				}
+				return nearest;
+			}
+		}
+		if(distance.isBounded() && !usesDistanceMatrix()){
+			SparseHistogram unknownHistogram = unknown.getSparseHistogram();
+			for(int i = 0; i < knowns.size(); i++){
+				nearest.offer(i, distance.distance(unknownHistogram, knowns.get(i).getSparseHistogram(), nearest.bound()));
+			}
+		} else {
+			double[] distances = distances(unknown, knowns);
+			for(int i = 0; i < distances.length; i++){
+				nearest.offer(i, distances[i]);
+			}
+		}
+		return nearest;
+	}
+	
+	/**
+	 * Builds a VantagePointTree over knowns when the distance is a metric,
+	 * nearest will search it when asked about the same list of knowns.
+	 * @param knowns
+	 * @throws AnalyzeException
+	 */
+	protected void index(List<Document> knowns) throws AnalyzeException {
+		clearIndex();
+		if(!distance.isMetric() || knowns.size() < MIN_INDEXED_KNOWNS){
+			return;
+		}
+		List<SparseHistogram> histograms = new ArrayList<SparseHistogram>(knowns.size());
+		for(Document known : knowns){
+			histograms.add(known.getSparseHistogram());
+		}
+		try {
+			vantagePointTree = new VantagePointTree(histograms, distance);
+		} catch (DistanceCalculationException e) {
+			throw new AnalyzeException("Distance "+distance.displayName()+" failed");
+		}
+		indexedKnowns = knowns;
+	}
+	
+	/**
+	 * Drops the tree built by index so nearest scans every known
+	 */
+	protected void clearIndex() {
+		vantagePointTree = null;
+		indexedKnowns = null;
+	}
+	
+	/**
+	 * @return true if the last call to index built a tree
+	 */
+	public boolean isIndexed(){
+		return vantagePointTree != null;
+	}
+	
+	/**
+	 * Hashes knowns into a LocalitySensitiveIndex when the distance has a hash family,
+	 * nearest and candidates then only look at the knowns colliding with the unknown.
+	 * @param knowns
+	 * @param bands the family default when not positive
+	 * @param rows the family default when not positive
+	 */
+	protected void hash(List<Document> knowns, int bands, int rows) {
+		clearHash();
+		LocalitySensitiveIndex.Family family = distance.getHashFamily();
+		if(family == null){
+			return;
+		}
+		List<SparseHistogram> histograms = new ArrayList<SparseHistogram>(knowns.size());
+		for(Document known : knowns){
+			histograms.add(known.getSparseHistogram());
+		}
+		localitySensitiveIndex = new LocalitySensitiveIndex(histograms, family,
+				bands > 0 ? bands : family.getBands(), rows > 0 ? rows : family.getRows());
+		hashedKnowns = knowns;
+	}
+	
+	/**
+	 * Drops the hashes built by hash so every known is a candidate again
+	 */
+	protected void clearHash() {
+		localitySensitiveIndex = null;
+		hashedKnowns = null;
+	}
+	
+	/**
+	 * @return true if the last call to hash built an index
+	 */
+	public boolean isHashed(){
+		return localitySensitiveIndex != null;
+	}
+	
+	/**
+	 * @param unknown
+	 * @param knowns
+	 * @param minimum fewer candidates than this and every known is returned
+	 * @return the indices, ascending, of the knowns worth an exact distance to unknown
+	 */
+	protected int[] candidates(Document unknown, List<Document> knowns, int minimum) {
+		if(localitySensitiveIndex != null && hashedKnowns == knowns){
+			int[] candidates = localitySensitiveIndex.candidates(unknown.getSparseHistogram());
+			if(candidates.length >= minimum){
+				return candidates;
+			}
+		}
+		int[] candidates = new int[knowns.size()];
+		for(int i = 0; i < candidates.length; i++){
+			candidates[i] = i;
+		}
+		return candidates;
+	}
+	
 	public String getDistanceName(){
 		String result ="";
 		if(distance!=null){
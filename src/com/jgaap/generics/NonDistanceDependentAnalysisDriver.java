@@ -28,7 +28,7 @@ public abstract class NonDistanceDependentAnalysisDriver extends AnalysisDriver
 		return " with " + analysisDriver.displayName();
 	}
 	
-	public void train(List<Document> knowns) {
+	public void train(List<Document> knowns) throws AnalyzeException {
 		// Pass the parameter settings for this driver to the driver we depend on. All drivers
 		// that inherit from NonDistanceDependentAnalysisDriver should call super.train().
 		analysisDriver.setParameters(getParameters());
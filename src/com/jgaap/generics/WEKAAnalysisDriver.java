@@ -1,24 +1,26 @@
 package com.jgaap.generics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import weka.classifiers.Classifier;
 import weka.core.Attribute;
 import weka.core.FastVector;
-//import weka.core.Instance;
+import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.SparseInstance;
 
 import com.jgaap.util.Document;
 import com.jgaap.util.Event;
-import com.jgaap.util.EventMap;
-import com.jgaap.util.Instance;
 import com.jgaap.util.Pair;
+import com.jgaap.util.SparseHistogram;
 
 
 /**
@@ -26,18 +28,30 @@ import com.jgaap.util.Pair;
  * the underlying classifier, plus any special parameters, in getClassifier(),
  * and everything else will Just Work.
  * 
+ * Feature vectors are built as SparseInstances straight from the non-zero
+ * entries of each document's SparseHistogram. Attributes come in the order
+ * events first appear over the known documents, so the classifier does not
+ * depend on the order events were interned in, and are looked up through a
+ * sorted vocabulary of the histograms' keys.
+ * 
+ * WEKA classifiers keep scratch state while classifying, so analyze never
+ * uses the trained classifier itself. Each concurrent caller borrows a copy
+ * of it from a pool that grows to the number of threads scoring at once.
+ * 
  * @author John Noecker Jr.
  * 
  */
 public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 	
 	private Classifier classifier;
+	private Queue<Classifier> scorers = new ConcurrentLinkedQueue<Classifier>();
 
-	private Set<String> allAuthorNames;
-	private Set<Event> allEvents;
-	private FastVector attributeList;
-	private FastVector authorNames;
-	private Instances trainingSet;
+	private List<String> allAuthorNames;
+	/** the SparseHistogram key of each event attribute, sorted */
+	private long[] vocabulary;
+	/** the attribute of each key in vocabulary */
+	private int[] attributes;
+	private Instances header;
 
 	@Override
 	public abstract String displayName();
@@ -55,31 +69,78 @@ public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 	public void train(List<Document> knownDocuments) throws AnalyzeException {
 
 		classifier = getClassifier();
+		scorers = new ConcurrentLinkedQueue<Classifier>();
 
 		// Test requirements
 		testRequirements(knownDocuments);
 
 		/*
-		 * Generate event histograms, unique event list, and unique author list.
+		 * Collect the event histograms and the unique author list, the
+		 * vocabulary is every key of the histograms, sorted with duplicates
+		 * dropped.
 		 */
-		List<EventMap> knownEventMaps = new ArrayList<EventMap>();
-		allAuthorNames = new HashSet<String>();
-		allEvents = new LinkedHashSet<Event>();
+		List<SparseHistogram> knownHistograms = new ArrayList<SparseHistogram>(knownDocuments.size());
+		Set<String> authors = new LinkedHashSet<String>();
+		int total = 0;
 		for (Document document : knownDocuments) {
-			allAuthorNames.add(document.getAuthor());
-			EventMap eventMap = new EventMap(document);
-			
-			allEvents.addAll(eventMap.uniqueEvents());
-			knownEventMaps.add(eventMap);
+			authors.add(document.getAuthor());
+			SparseHistogram histogram = document.getSparseHistogram();
+			knownHistograms.add(histogram);
+			total += histogram.size();
+		}
+		allAuthorNames = new ArrayList<String>(authors);
+		long[] keys = new long[total];
+		int n = 0;
+		for (SparseHistogram histogram : knownHistograms) {
+			System.arraycopy(histogram.getKeys(), 0, keys, n, histogram.size());
+			n += histogram.size();
+		}
+		Arrays.sort(keys);
+		int size = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (i == 0 || keys[i] != keys[size - 1]) {
+				keys[size++] = keys[i];
+			}
+		}
+		vocabulary = Arrays.copyOf(keys, size);
+
+		/*
+		 * Number the attributes in the order events first appear over the
+		 * documents and within a document by event string, as keys only
+		 * record which thread happened to see an event first.
+		 */
+		attributes = new int[size];
+		Event[] events = new Event[size];
+		int next = 1;
+		for (final SparseHistogram histogram : knownHistograms) {
+			Integer[] order = new Integer[histogram.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i, Integer j) {
+					int comparison = histogram.eventAt(i).toString().compareTo(histogram.eventAt(j).toString());
+					return comparison != 0 ? comparison : Long.compare(histogram.getHashes()[i], histogram.getHashes()[j]);
+				}
+			});
+			for (int i : order) {
+				int index = Arrays.binarySearch(vocabulary, histogram.getKeys()[i]);
+				if (attributes[index] == 0) {
+					attributes[index] = next;
+					events[next - 1] = histogram.eventAt(i);
+					next++;
+				}
+			}
 		}
 
 		/*
 		 * Put together WEKA "Instances" object, which defines the attributes
 		 * (aka "events" or "features").
 		 */
-		attributeList = new FastVector(allEvents.size() + 1);
+		FastVector attributeList = new FastVector(size + 1);
 
-		authorNames = new FastVector(allAuthorNames.size()+1);
+		FastVector authorNames = new FastVector(allAuthorNames.size()+1);
 		for (String currentAuthorName : allAuthorNames) {
 			authorNames.addElement(currentAuthorName);
 		}
@@ -87,7 +148,7 @@ public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 		Attribute authorNameAttribute = new Attribute("authorName", authorNames);
 		attributeList.addElement(authorNameAttribute);
 
-		for (Event event : allEvents) {
+		for (Event event : events) {
 			Attribute eventAttribute = new Attribute(event.getEvent());
 			attributeList.addElement(eventAttribute); // Each unique event is an
 														// attribute in WEKA
@@ -97,29 +158,17 @@ public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 		 * Create the training "Instances" object, which is essentially the set
 		 * of feature vectors for the training data.
 		 */
-		trainingSet = new Instances("JGAAP", attributeList, knownDocuments.size());
+		Instances trainingSet = new Instances("JGAAP", attributeList, knownDocuments.size());
 		trainingSet.setClassIndex(0); // The label (author name) is in position
 										// 0.
 
 		/*
-		 * Put together the training set
+		 * Put together the training set, each document straight from its
+		 * non-zero frequencies
 		 */
-		for (int i = 0; i < knownEventMaps.size(); i++) {
-			EventMap knownEventMap = knownEventMaps.get(i);
-			Instance currentTrainingDocument = new Instance(
-					allEvents.size() + 1);
-			currentTrainingDocument.setValue((Attribute) attributeList
-					.elementAt(0), knownDocuments.get(i).getAuthor());
-			int j = 1; // Start counting events (at 1, since 0 is the author
-						// label)
-			for (Event event : allEvents) {
-				currentTrainingDocument.setValue(
-						(Attribute) attributeList.elementAt(j),
-						knownEventMap.normalizedFrequency(event));
-				j++;
-			}
-			trainingSet.add(new SparseInstance(currentTrainingDocument));
-		}		
+		for (int i = 0; i < knownHistograms.size(); i++) {
+			trainingSet.add(toInstance(knownHistograms.get(i), allAuthorNames.indexOf(knownDocuments.get(i).getAuthor())));
+		}
 
 		/*
 		 * Train the classifier N.B. The classifier should be set in the
@@ -131,6 +180,41 @@ public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 			e.printStackTrace();
 			throw new AnalyzeException("WEKA classifier not trained: "+e.getMessage());
 		}
+		header = new Instances(trainingSet, 0);
+	}
+
+	/**
+	 * Builds the sparse feature vector of a histogram over the vocabulary,
+	 * events outside the vocabulary are left out
+	 * @param histogram
+	 * @param authorIndex the value of the author attribute
+	 * @return the instance, not yet attached to a dataset
+	 */
+	private Instance toInstance(SparseHistogram histogram, int authorIndex) {
+		long[] keys = histogram.getKeys();
+		double[] frequencies = histogram.getFrequencies();
+		int[] indices = new int[keys.length + 1];
+		double[] values = new double[keys.length + 1];
+		int n = 0;
+		if (authorIndex != 0) {
+			indices[n] = 0;
+			values[n++] = authorIndex;
+		}
+		// WEKA wants the attributes of a sparse instance ascending, so sort them with their positions in the histogram
+		long[] entries = new long[keys.length];
+		int m = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int index = Arrays.binarySearch(vocabulary, keys[i]);
+			if (index >= 0) {
+				entries[m++] = ((long) attributes[index] << 32) | i;
+			}
+		}
+		Arrays.sort(entries, 0, m);
+		for (int e = 0; e < m; e++) {
+			indices[n] = (int) (entries[e] >>> 32);
+			values[n++] = frequencies[(int) entries[e]] * 100000;
+		}
+		return new SparseInstance(1.0, Arrays.copyOf(values, n), Arrays.copyOf(indices, n), vocabulary.length + 1);
 	}
 
 	/**
@@ -145,25 +229,23 @@ public abstract class WEKAAnalysisDriver extends AnalysisDriver {
 		 * Generate the test sets, classifying each one as we go
 		 */
 		List<Pair<String, Double>> result = new ArrayList<Pair<String, Double>>();
-		EventMap eventMap = new EventMap(unknownDocument);
-		Instance currentTest = new Instance(allEvents.size() + 1);
-
-		currentTest.setValue((Attribute) attributeList.elementAt(0), "Unknown");
-		int i = 1; // Start at 1, again
-		for (Event event : allEvents) {
-			currentTest.setValue((Attribute) attributeList.elementAt(i),
-					eventMap.normalizedFrequency(event));
-			i++;
-		}
-		
-		currentTest.setDataset(trainingSet);
+		Instance currentTest = toInstance(unknownDocument.getSparseHistogram(), allAuthorNames.size()); // "Unknown"
+		currentTest.setDataset(header);
 
 		double[] probDistribution;
+		Classifier scorer = scorers.poll();
 		try {
-			probDistribution = classifier.distributionForInstance(currentTest);
+			if (scorer == null) {
+				scorer = Classifier.makeCopy(classifier);
+			}
+			probDistribution = scorer.distributionForInstance(currentTest);
 		} catch (Exception e) {
 			e.printStackTrace();
 			throw new AnalyzeException("Could not classify with WEKA: " + e.getMessage());
+		} finally {
+			if (scorer != null) {
+				scorers.offer(scorer);
+			}
 		}
 
 		/*
@@ -35,18 +35,23 @@ package com.jgaap.ui;
 
 //Package Imports
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.Container;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.DefaultListModel;
 import javax.swing.JFileChooser;
 import javax.swing.JList;
+import javax.swing.JMenu;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.TableModelEvent;
@@ -140,6 +145,7 @@ public class JGAAP_UI_MainForm extends javax.swing.JFrame {
 	List<Document> KnownDocumentList = new ArrayList<Document>();
 	List<Document> DocumentList = new ArrayList<Document>();
 	List<String> AuthorList = new ArrayList<String>();
+	List<Component> lockedComponents = new ArrayList<Component>();
 
 	/** Creates new form JGAAP_UI_MainForm */
 	public JGAAP_UI_MainForm() {
@@ -2537,27 +2543,37 @@ public class JGAAP_UI_MainForm extends javax.swing.JFrame {
 					JGAAP_API.addCanonicizer(canonicizerPair.getFirst().displayName());
 				}
 			}
-			JGAAP_API.execute();
-			List<Document> documents = JGAAP_API.getDocuments();
-			StringBuilder buffer = new StringBuilder();
-			for (Document document : documents) {
-				String result = document.getResult();
-				buffer.append(result);
-			}
-			// ResultsPage.DisplayResults(buffer.toString());
-			ResultsPage.addResults(buffer.toString());
-			ResultsPage.setVisible(true);
+			// training and analysis run off the event dispatch thread so the window stays responsive
+			lockForm();
+			new SwingWorker<String, Void>() {
+				@Override
+				protected String doInBackground() throws Exception {
+					JGAAP_API.execute();
+					List<Document> documents = JGAAP_API.getDocuments();
+					StringBuilder buffer = new StringBuilder();
+					for (Document document : documents) {
+						String result = document.getResult();
+						buffer.append(result);
+					}
+					return buffer.toString();
+				}
+
+				@Override
+				protected void done() {
+					unlockForm();
+					try {
+						// ResultsPage.DisplayResults(get());
+						ResultsPage.addResults(get());
+						ResultsPage.setVisible(true);
+					} catch (ExecutionException e) {
+						showExperimentFailed(e.getCause());
+					} catch (InterruptedException e) {
+						showExperimentFailed(e);
+					}
+				}
+			}.execute();
 		} catch (Exception e) {
-			if (e.getMessage() == null) {
-				JOptionPane
-						.showMessageDialog(this,
-								"Experiment failed to complete.\nReview Error logs for more information.\n(Run JGAAP from the terminal to view logs using java -jar jgaap.jar or ant run-gui)",
-								"JGAAP Error", JOptionPane.ERROR_MESSAGE);
-			} else {
-				JOptionPane.showMessageDialog(this,
-						"Experiment failed to complete.\nDetailed information is available below:\n"
-								+ e.toString(), "JGAAP Error", JOptionPane.ERROR_MESSAGE);
-			}
+			showExperimentFailed(e);
 		}
 		CanonicizersPanel_SearchField.setText("");
 		EventSetsPanel_SearchField.setText("");
@@ -2565,6 +2581,56 @@ public class JGAAP_UI_MainForm extends javax.swing.JFrame {
 		AnalysisMethodPanel_AMDFSearchField.setText("");
 	}// GEN-LAST:event_ReviewPanel_ProcessButtonActionPerformed
 
+	/**
+	 * Disables every enabled control while an experiment runs in the background,
+	 * so nothing changes the API underneath it
+	 */
+	private void lockForm() {
+		lock(getContentPane());
+		lock(JGAAP_MenuBar);
+	}
+
+	private void lock(Component component) {
+		if (component.isEnabled()) {
+			component.setEnabled(false);
+			lockedComponents.add(component);
+		}
+		Component[] children;
+		if (component instanceof JMenu) {
+			children = ((JMenu) component).getMenuComponents();
+		} else if (component instanceof Container) {
+			children = ((Container) component).getComponents();
+		} else {
+			return;
+		}
+		for (Component child : children) {
+			lock(child);
+		}
+	}
+
+	/**
+	 * Enables again what lockForm disabled, controls that were already disabled stay so
+	 */
+	private void unlockForm() {
+		for (Component component : lockedComponents) {
+			component.setEnabled(true);
+		}
+		lockedComponents.clear();
+	}
+
+	private void showExperimentFailed(Throwable e) {
+		if (e.getMessage() == null) {
+			JOptionPane
+					.showMessageDialog(this,
+							"Experiment failed to complete.\nReview Error logs for more information.\n(Run JGAAP from the terminal to view logs using java -jar jgaap.jar or ant run-gui)",
+							"JGAAP Error", JOptionPane.ERROR_MESSAGE);
+		} else {
+			JOptionPane.showMessageDialog(this,
+					"Experiment failed to complete.\nDetailed information is available below:\n"
+							+ e.toString(), "JGAAP Error", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
 	private void BatchLoadMenuItemActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_BatchLoadMenuItemActionPerformed
 		FileChoser = new JFileChooser(filepath);
 		int choice = FileChoser.showOpenDialog(JGAAP_UI_MainForm.this);
@@ -0,0 +1,96 @@
+package com.jgaap.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jgaap.generics.CanonicizationException;
+import com.jgaap.generics.Canonicizer;
+import com.jgaap.generics.EventDriver;
+
+/**
+ * The canonicizer chains of several EventDrivers arranged as a trie, so that a
+ * prefix shared by several chains runs once per document and its output is
+ * handed on to every chain continuing from it.
+ *
+ * Two Canonicizers are the same step when they are the same class with the
+ * same parameters. Canonicizers and EventDrivers may change the array they are
+ * given, so whenever an output has more than one reader all but the last get a copy.
+ *
+ * @since 8.0.3
+ */
+public class CanonicizationPlan {
+
+	private final Node root;
+	private final List<EventDriver> eventDrivers;
+	private int steps;
+
+	/**
+	 * @param eventDrivers the EventDrivers whose own Canonicizers are planned
+	 */
+	public CanonicizationPlan(List<EventDriver> eventDrivers) {
+		root = new Node(null);
+		this.eventDrivers = new ArrayList<EventDriver>(eventDrivers);
+		for (EventDriver eventDriver : eventDrivers) {
+			Node node = root;
+			for (Canonicizer canonicizer : eventDriver.getCanonicizers()) {
+				String key = canonicizer.getClass().getName() + "{" + canonicizer.getParameters() + "}";
+				Node child = node.children.get(key);
+				if (child == null) {
+					child = new Node(canonicizer);
+					node.children.put(key, child);
+					steps++;
+				}
+				node = child;
+			}
+			node.eventDrivers.add(eventDriver);
+		}
+	}
+
+	/**
+	 * @return the number of Canonicizers apply runs, one per distinct chain prefix
+	 */
+	public int getStepCount() {
+		return steps;
+	}
+
+	/**
+	 * @param text the document text canonicized by the document's own Canonicizers, it may be changed
+	 * @return the text each EventDriver should eventify, in the order the EventDrivers were given
+	 * @throws CanonicizationException
+	 */
+	public Map<EventDriver, char[]> apply(char[] text) throws CanonicizationException {
+		Map<EventDriver, char[]> canonicized = new HashMap<EventDriver, char[]>();
+		apply(root, text, canonicized);
+		// the trie is walked depth first, the result follows the EventDrivers instead
+		Map<EventDriver, char[]> texts = new LinkedHashMap<EventDriver, char[]>();
+		for (EventDriver eventDriver : eventDrivers) {
+			texts.put(eventDriver, canonicized.get(eventDriver));
+		}
+		return texts;
+	}
+
+	private static void apply(Node node, char[] text, Map<EventDriver, char[]> texts) throws CanonicizationException {
+		int readers = node.eventDrivers.size() + node.children.size();
+		for (EventDriver eventDriver : node.eventDrivers) {
+			texts.put(eventDriver, --readers == 0 ? text : text.clone());
+		}
+		for (Node child : node.children.values()) {
+			char[] input = --readers == 0 ? text : text.clone();
+			apply(child, child.canonicizer.process(input), texts);
+		}
+	}
+
+	private static class Node {
+
+		final Canonicizer canonicizer;
+		final Map<String, Node> children = new LinkedHashMap<String, Node>();
+		final List<EventDriver> eventDrivers = new ArrayList<EventDriver>();
+
+		Node(Canonicizer canonicizer) {
+			this.canonicizer = canonicizer;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.jgaap.util;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.DistanceFunction;
+
+/**
+ * Distances between pairs of Documents, computed at most once per DistanceFunction.
+ * Results are remembered by (unknown, known, distance class, distance parameters)
+ * so every NeighborAnalysisDriver using the same distance shares them.
+ *
+ * Whole blocks are filled in tiles on a fork join pool by compute, single
+ * rows and pairs are filled on the calling thread.
+ * A DistanceMatrix is meant to live for one API.execute, it holds on to every
+ * Document it has seen.
+ *
+ * @since 8.0.3
+ */
+public class DistanceMatrix {
+
+	/**
+	 * Tiles are at most TILE unknowns by TILE knowns so the histograms of a tile stay in cache
+	 */
+	static final int TILE = 32;
+
+	private final ForkJoinPool pool;
+	private final ConcurrentMap<String, ConcurrentMap<Document, ConcurrentMap<Document, Double>>> distances;
+
+	public DistanceMatrix() {
+		this(WorkPool.getShared().getPool());
+	}
+
+	public DistanceMatrix(ForkJoinPool pool) {
+		this.pool = pool;
+		this.distances = new ConcurrentHashMap<String, ConcurrentMap<Document, ConcurrentMap<Document, Double>>>();
+	}
+
+	/**
+	 * Fills in the distance from every unknown to every known, computing only the pairs not already known
+	 * @param unknowns
+	 * @param knowns
+	 * @param distance
+	 * @return the distances with one row per unknown and one column per known
+	 * @throws DistanceCalculationException
+	 */
+	public double[][] compute(List<Document> unknowns, List<Document> knowns, DistanceFunction distance) throws DistanceCalculationException {
+		double[][] matrix = new double[unknowns.size()][knowns.size()];
+		Tile tile = new Tile(rows(distance), unknowns, knowns, distance, matrix, 0, unknowns.size(), 0, knowns.size());
+		try {
+			pool.invoke(tile);
+		} catch (RuntimeException e) {
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				if (cause instanceof DistanceCalculationException) {
+					throw (DistanceCalculationException) cause;
+				}
+			}
+			throw e;
+		}
+		return matrix;
+	}
+
+	/**
+	 * @param unknown
+	 * @param knowns
+	 * @param distance
+	 * @return the distance from unknown to each of knowns
+	 * @throws DistanceCalculationException
+	 */
+	public double[] row(Document unknown, List<Document> knowns, DistanceFunction distance) throws DistanceCalculationException {
+		ConcurrentMap<Document, Double> row = row(rows(distance), unknown);
+		double[] result = new double[knowns.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = distance(row, unknown, knowns.get(i), distance);
+		}
+		return result;
+	}
+
+	/**
+	 * @param unknown
+	 * @param known
+	 * @param distance
+	 * @return the distance from unknown to known
+	 * @throws DistanceCalculationException
+	 */
+	public double distance(Document unknown, Document known, DistanceFunction distance) throws DistanceCalculationException {
+		return distance(row(rows(distance), unknown), unknown, known, distance);
+	}
+
+	/**
+	 * @return the number of distances remembered
+	 */
+	public int size() {
+		int size = 0;
+		for (ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows : distances.values()) {
+			for (ConcurrentMap<Document, Double> row : rows.values()) {
+				size += row.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Two DistanceFunctions give the same distances when they are the same class with the same parameters
+	 */
+	private static String key(DistanceFunction distance) {
+		return distance.getClass().getName() + "{" + distance.getParameters() + "}";
+	}
+
+	private ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows(DistanceFunction distance) {
+		String key = key(distance);
+		ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows = distances.get(key);
+		if (rows == null) {
+			distances.putIfAbsent(key, new ConcurrentHashMap<Document, ConcurrentMap<Document, Double>>());
+			rows = distances.get(key);
+		}
+		return rows;
+	}
+
+	private static ConcurrentMap<Document, Double> row(ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows, Document unknown) {
+		ConcurrentMap<Document, Double> row = rows.get(unknown);
+		if (row == null) {
+			rows.putIfAbsent(unknown, new ConcurrentHashMap<Document, Double>());
+			row = rows.get(unknown);
+		}
+		return row;
+	}
+
+	private static double distance(ConcurrentMap<Document, Double> row, Document unknown, Document known, DistanceFunction distance) throws DistanceCalculationException {
+		Double current = row.get(known);
+		if (current == null) {
+			current = distance.distance(unknown.getSparseHistogram(), known.getSparseHistogram());
+			row.put(known, current);
+		}
+		return current;
+	}
+
+	private static class Tile extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows;
+		private final List<Document> unknowns;
+		private final List<Document> knowns;
+		private final DistanceFunction distance;
+		private final double[][] matrix;
+		private final int rowFrom;
+		private final int rowTo;
+		private final int columnFrom;
+		private final int columnTo;
+
+		Tile(ConcurrentMap<Document, ConcurrentMap<Document, Double>> rows, List<Document> unknowns, List<Document> knowns,
+				DistanceFunction distance, double[][] matrix, int rowFrom, int rowTo, int columnFrom, int columnTo) {
+			this.rows = rows;
+			this.unknowns = unknowns;
+			this.knowns = knowns;
+			this.distance = distance;
+			this.matrix = matrix;
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+			this.columnFrom = columnFrom;
+			this.columnTo = columnTo;
+		}
+
+		@Override
+		protected void compute() {
+			int height = rowTo - rowFrom;
+			int width = columnTo - columnFrom;
+			if (height > TILE && height >= width) {
+				int middle = rowFrom + height / 2;
+				invokeAll(new Tile(rows, unknowns, knowns, distance, matrix, rowFrom, middle, columnFrom, columnTo),
+						new Tile(rows, unknowns, knowns, distance, matrix, middle, rowTo, columnFrom, columnTo));
+			} else if (width > TILE) {
+				int middle = columnFrom + width / 2;
+				invokeAll(new Tile(rows, unknowns, knowns, distance, matrix, rowFrom, rowTo, columnFrom, middle),
+						new Tile(rows, unknowns, knowns, distance, matrix, rowFrom, rowTo, middle, columnTo));
+			} else {
+				for (int i = rowFrom; i < rowTo; i++) {
+					Document unknown = unknowns.get(i);
+					ConcurrentMap<Document, Double> row = row(rows, unknown);
+					for (int j = columnFrom; j < columnTo; j++) {
+						try {
+							matrix[i][j] = distance(row, unknown, knowns.get(j), distance);
+						} catch (DistanceCalculationException e) {
+							throw new DistanceCalculationFailure(e);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Carries a DistanceCalculationException out of the fork join pool
+	 */
+	private static class DistanceCalculationFailure extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		DistanceCalculationFailure(DistanceCalculationException cause) {
+			super(cause);
+		}
+	}
+}
@@ -51,6 +51,9 @@ public class Document {
 	private Map<EventDriver, EventSet> eventSets;
 	private Map<AnalysisDriver, List<Pair<String, Double>>> results;
 	private boolean failed = false;
+	private volatile EventMap eventMap;
+	private volatile AbsoluteHistogram absoluteHistogram;
+	private volatile SparseHistogram sparseHistogram;
 	
 	private static final String tab = "        "; 
 	
@@ -267,8 +270,9 @@ public class Document {
 	 * @param eventDriver
 	 * @param eventSet
 	 */
-	public void addEventSet(EventDriver eventDriver, EventSet eventSet) {
+	public synchronized void addEventSet(EventDriver eventDriver, EventSet eventSet) {
 		eventSets.put(eventDriver, eventSet);
+		clearHistograms();
 	}
 
 	/**
@@ -292,8 +296,76 @@ public class Document {
 	/**
 	 * Removes all EventSets generated from this document
 	 */
-	public void clearEventSets() {
+	public synchronized void clearEventSets() {
 		eventSets.clear();
+		clearHistograms();
+	}
+
+	/**
+	 * Returns the EventMap of all the EventSets of this document.
+	 * It is built the first time it is asked for and kept until the EventSets change.
+	 * @return the EventMap of this document
+	 */
+	public EventMap getEventMap() {
+		EventMap eventMap = this.eventMap;
+		if (eventMap == null) {
+			synchronized (this) {
+				eventMap = this.eventMap;
+				if (eventMap == null) {
+					eventMap = new EventMap(this);
+					this.eventMap = eventMap;
+				}
+			}
+		}
+		return eventMap;
+	}
+
+	/**
+	 * Returns the AbsoluteHistogram of all the EventSets of this document.
+	 * It is built the first time it is asked for and kept until the EventSets change.
+	 * @return the AbsoluteHistogram of this document
+	 */
+	public AbsoluteHistogram getAbsoluteHistogram() {
+		AbsoluteHistogram absoluteHistogram = this.absoluteHistogram;
+		if (absoluteHistogram == null) {
+			synchronized (this) {
+				absoluteHistogram = this.absoluteHistogram;
+				if (absoluteHistogram == null) {
+					absoluteHistogram = new AbsoluteHistogram(this);
+					this.absoluteHistogram = absoluteHistogram;
+				}
+			}
+		}
+		return absoluteHistogram;
+	}
+
+	/**
+	 * Returns the SparseHistogram of all the EventSets of this document.
+	 * It is built the first time it is asked for and kept until the EventSets change.
+	 * @return the SparseHistogram of this document
+	 */
+	public SparseHistogram getSparseHistogram() {
+		SparseHistogram sparseHistogram = this.sparseHistogram;
+		if (sparseHistogram == null) {
+			synchronized (this) {
+				sparseHistogram = this.sparseHistogram;
+				if (sparseHistogram == null) {
+					sparseHistogram = new SparseHistogram(this);
+					this.sparseHistogram = sparseHistogram;
+				}
+			}
+		}
+		return sparseHistogram;
+	}
+
+	/**
+	 * Drops the cached histograms, they are rebuilt from the current EventSets when next asked for.
+	 * Call this after changing an EventSet returned by getEventSets in place.
+	 */
+	public synchronized void clearHistograms() {
+		eventMap = null;
+		absoluteHistogram = null;
+		sparseHistogram = null;
 	}
 
 	/** 
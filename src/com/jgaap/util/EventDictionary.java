@@ -0,0 +1,170 @@
+package com.jgaap.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jgaap.generics.EventDriver;
+
+/**
+ * A symbol table that interns Events to dense int ids.
+ * Each EventDriver owns one dictionary so that every document eventified
+ * with that driver shares a single canonical Event object per distinct event.
+ *
+ * Lookups are lock free, only the first sighting of an Event takes a lock.
+ * Ids are assigned in order starting at 0 and are never reused.
+ *
+ * Ids depend on which thread saw an event first, so each entry also keeps a
+ * hash of the event that depends only on the event and its EventDriver's
+ * class and parameters, for anything that must come out the same every run.
+ *
+ * @since 8.0.3
+ */
+public class EventDictionary {
+
+	private static final AtomicInteger serials = new AtomicInteger();
+
+	private final int serial;
+	private final EventDriver eventDriver;
+	private final Map<Event, Integer> ids;
+	private volatile Event[] events;
+	private volatile long[] hashes;
+	private long seed;
+	private volatile boolean foreign;
+	private int size;
+
+	public EventDictionary(EventDriver eventDriver) {
+		this.serial = serials.getAndIncrement();
+		this.eventDriver = eventDriver;
+		this.ids = new ConcurrentHashMap<Event, Integer>(1024);
+		this.events = new Event[1024];
+		this.hashes = new long[1024];
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the id for the event creating a new one if this is the first time it has been seen
+	 * @param event
+	 * @return the id of the event
+	 */
+	public int intern(Event event) {
+		Integer id = ids.get(event);
+		if (id != null) {
+			return id;
+		}
+		synchronized (this) {
+			id = ids.get(event);
+			if (id == null) {
+				if (size == events.length) {
+					hashes = Arrays.copyOf(hashes, size * 2);
+					events = Arrays.copyOf(events, size * 2);
+				}
+				if (event.getEventDriver() == eventDriver) {
+					if (size == 0) {
+						seed = seed(eventDriver);
+					}
+					hashes[size] = hash(seed, event.toString());
+				} else {
+					hashes[size] = hash(seed(event.getEventDriver()), event.toString());
+				}
+				events[size] = event;
+				if (event.getEventDriver() != eventDriver) {
+					foreign = true;
+				}
+				id = size++;
+				ids.put(event, id);
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Interns the event this dictionaries EventDriver would generate from data
+	 * @param data
+	 * @return the id of the event
+	 */
+	public int intern(String data) {
+		return intern(new Event(data, eventDriver));
+	}
+
+	/**
+	 * Looks up an event without interning it
+	 * @param event
+	 * @return the id of the event or -1 if it has never been interned
+	 */
+	public int id(Event event) {
+		Integer id = ids.get(event);
+		if (id == null) {
+			return -1;
+		}
+		return id;
+	}
+
+	/**
+	 * @param id
+	 * @return the canonical Event for the id
+	 */
+	public Event event(int id) {
+		return events[id];
+	}
+
+	/**
+	 * @param id
+	 * @return the hash of the Event for the id, the same in every run whatever its id
+	 */
+	public long hash(int id) {
+		return hashes[id];
+	}
+
+	private static long seed(EventDriver eventDriver) {
+		if (eventDriver == null) {
+			return hash(0, "");
+		}
+		return hash(0, eventDriver.getClass().getName() + "{" + eventDriver.getParameters() + "}");
+	}
+
+	/**
+	 * 64 bit FNV-1a of the characters of data continuing from seed, finished with the splitmix64 mixer
+	 */
+	private static long hash(long seed, String data) {
+		long hash = seed ^ 0xCBF29CE484222325L;
+		if (data != null) {
+			for (int i = 0; i < data.length(); i++) {
+				hash = (hash ^ data.charAt(i)) * 0x100000001B3L;
+			}
+		}
+		hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+		return hash ^ (hash >>> 31);
+	}
+
+	/**
+	 * @return the number of distinct events interned so far
+	 */
+	public int size() {
+		return ids.size();
+	}
+
+	/**
+	 * Events generated by one EventDriver can end up in an EventSet owned by another
+	 * (NGram drivers wrapping a word driver for example).
+	 * When this is false every Event interned here was generated by the owning EventDriver.
+	 * 
+	 * @return true if an Event from a different EventDriver was ever interned here
+	 */
+	public boolean hasForeignEvents() {
+		return foreign;
+	}
+
+	/**
+	 * @return a number unique to this dictionary, dictionaries created later have larger serials
+	 */
+	public int getSerial() {
+		return serial;
+	}
+
+	public EventDriver getEventDriver() {
+		return eventDriver;
+	}
+}
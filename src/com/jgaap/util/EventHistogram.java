@@ -22,15 +22,12 @@ package com.jgaap.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 /**
- * Class supporting basic histogram operations on Events. Uses a Hashtable to
+ * Class supporting basic histogram operations on Events. Uses an IndexedHistogram to
  * keep track of events and their counts, and provides standard access methods.
  * 
  * @author Juola
@@ -38,8 +35,8 @@ import java.util.Set;
  */
 public class EventHistogram implements Iterable<Event> {
 
-	/** The Hashtable storing the histogram of interest */
-	private Map<Event, Integer> theHist;
+	/** The primitive histogram doing the counting */
+	private IndexedHistogram theHist;
 	/**
 	 * The current number of entries in the histogram. Zero is, of course, an
 	 * empty histogram with no data.
@@ -48,7 +45,7 @@ public class EventHistogram implements Iterable<Event> {
 
 	/** Construct a new (empty) histogram */
 	public EventHistogram() {
-		theHist = new HashMap<Event, Integer>(1001);
+		theHist = new IndexedHistogram();
 		numTokens = 0;
 	}
 
@@ -56,11 +53,10 @@ public class EventHistogram implements Iterable<Event> {
 	 * Construct a new (empty) histogram of named capacity
 	 * 
 	 * @param initialCapacity
-	 *            the initial capacity
+	 *            the initial capacity, the underlying tables grow as needed
 	 */
 	public EventHistogram(int initialCapacity) {
-		theHist = new HashMap<Event, Integer>(initialCapacity);
-		numTokens = 0;
+		this();
 	}
 
 	/**
@@ -70,9 +66,8 @@ public class EventHistogram implements Iterable<Event> {
 	 */
 	 public EventHistogram(EventSet eventSet) {
 		 this();
-		 for(Event event : eventSet) {
-			 this.add(event);
-		 }
+		 theHist.add(eventSet);
+		 numTokens = eventSet.size();
 	 }
 	
 	/**
@@ -82,24 +77,19 @@ public class EventHistogram implements Iterable<Event> {
 	 *            the Event to add
 	 */
 	public void add(Event e) {
-		Integer v = theHist.get(e);
-		if (v == null) {
-			theHist.put(e, Integer.valueOf(1));
-		} else {
-			theHist.put(e, Integer.valueOf(v.intValue() + 1));
-		}
+		theHist.add(e);
 		numTokens++;
 	}
 
 	/** Clear the histogram of all data */
 	public void clear() {
-		theHist.clear();
+		theHist = new IndexedHistogram();
 		numTokens = 0;
 	}
 
 	/** Return all Events in a histogram */
 	public Set<Event> events() {
-		return theHist.keySet();
+		return theHist.uniqueEvents();
 	}
 
 	/**
@@ -110,12 +100,7 @@ public class EventHistogram implements Iterable<Event> {
 	 * @return the exact number of times that Event has been added
 	 */
 	public int getAbsoluteFrequency(Event e) {
-		Integer v = theHist.get(e);
-		if (v == null) {
-			return 0;
-		} else {
-			return v.intValue();
-		}
+		return theHist.absoluteFrequency(e);
 	}
 
 	/**
@@ -126,11 +111,11 @@ public class EventHistogram implements Iterable<Event> {
 	 * @return 100000 times the relative frequency of the named Event
 	 */
 	public double getNormalizedFrequency(Event e) {
-		Integer v = theHist.get(e);
-		if (v == null) {
+		int v = theHist.absoluteFrequency(e);
+		if (v == 0) {
 			return 0.0;
 		} else {
-			return ((v.doubleValue() * 100000.0) / (numTokens));
+			return ((v * 100000.0) / (numTokens));
 		}
 	}
 
@@ -142,11 +127,11 @@ public class EventHistogram implements Iterable<Event> {
 	 * @return the proportion of Events in the histogram of this type
 	 */
 	public double getRelativeFrequency(Event e) {
-		Integer v = theHist.get(e);
-		if (v == null) {
+		int v = theHist.absoluteFrequency(e);
+		if (v == 0) {
 			return 0.0;
 		} else {
-			return v.doubleValue() / numTokens;
+			return v / (double) numTokens;
 		}
 	}
 
@@ -165,22 +150,23 @@ public class EventHistogram implements Iterable<Event> {
 	 * @return the number of distinct Event types stored in a histogram
 	 */
 	public int getNTypes() {
-		return theHist.size();
+		return theHist.getNTypes();
 	}
 
 	@Override
 	public String toString() {
-		return theHist.toString();
-		/*
-		 * StringBuffer out = new StringBuffer(); for(Enumeration<Event> keys =
-		 * theHist.keys();keys.hasMoreElements();){ Event e =
-		 * keys.nextElement(); out.append(e.toString()+" = "+theHist.get(e)); }
-		 * return out.toString();
-		 */
+		StringBuilder out = new StringBuilder("{");
+		for (Event event : theHist.uniqueEvents()) {
+			if (out.length() > 1) {
+				out.append(", ");
+			}
+			out.append(event).append('=').append(theHist.absoluteFrequency(event));
+		}
+		return out.append('}').toString();
 	}
 
 	public Iterator<Event> iterator() {
-		return theHist.keySet().iterator();
+		return theHist.uniqueEvents().iterator();
 	}
 
     /**
@@ -190,17 +176,15 @@ public class EventHistogram implements Iterable<Event> {
      * @return The above-described list of events.
      */
 	public List<Pair<Event, Integer>> getSortedHistogram() {
-		List<Entry<Event, Integer>> list = new ArrayList<Entry<Event, Integer>>(theHist.entrySet());
-		Collections.sort(list, new Comparator<Entry<Event, Integer>>() {
-			public int compare(Entry<Event, Integer> o1, Entry<Event, Integer> o2) {
-				return -(o1.getValue().compareTo(o2.getValue()));
+		List<Pair<Event, Integer>> result = new ArrayList<Pair<Event, Integer>>(theHist.getNTypes());
+		for (Event event : theHist.uniqueEvents()) {
+			result.add(new Pair<Event, Integer>(event, theHist.absoluteFrequency(event), 2));
+		}
+		Collections.sort(result, new Comparator<Pair<Event, Integer>>() {
+			public int compare(Pair<Event, Integer> o1, Pair<Event, Integer> o2) {
+				return -(o1.getSecond().compareTo(o2.getSecond()));
 			}
 		});
-
-		List<Pair<Event, Integer>> result = new ArrayList<Pair<Event, Integer>>(list.size());
-		for (Entry<Event, Integer>entry : list) {
-			result.add(new Pair<Event, Integer>(entry.getKey(), entry.getValue(), 2));
-		}
 		return result;
 	}
 }
@@ -72,16 +72,22 @@ public class EventMap implements Histogram {
 		return histogram.keySet();
 	}
 	
-	public static EventMap centroid(Collection<EventMap> eventMaps) {
-		double count = eventMaps.size();
+	/**
+	 * Averages the relative frequencies of the histograms passed in
+	 * @param histograms
+	 * @return the centroid of histograms
+	 */
+	public static EventMap centroid(Collection<? extends Histogram> histograms) {
+		double count = histograms.size();
 		Map<Event, Double> map = new HashMap<Event, Double>(10000);
-		for (EventMap eventMap : eventMaps) {
-			for(Map.Entry<Event, Double> entry : eventMap.histogram.entrySet()){
-				Double current = map.get(entry.getKey());
-				if(current == null){
-					map.put(entry.getKey(), entry.getValue()/count);
-				} else {
-					map.put(entry.getKey(), current+entry.getValue()/count);
+		for (Histogram histogram : histograms) {
+			if (histogram instanceof EventMap) {
+				for(Map.Entry<Event, Double> entry : ((EventMap) histogram).histogram.entrySet()){
+					add(map, entry.getKey(), entry.getValue()/count);
+				}
+			} else {
+				for(Event event : histogram.uniqueEvents()){
+					add(map, event, histogram.relativeFrequency(event)/count);
 				}
 			}
 		}
@@ -89,6 +95,15 @@ public class EventMap implements Histogram {
 		return new EventMap(map);
 	}
 
+	private static void add(Map<Event, Double> map, Event event, double value) {
+		Double current = map.get(event);
+		if(current == null){
+			map.put(event, value);
+		} else {
+			map.put(event, current+value);
+		}
+	}
+
 	@Override
 	public int absoluteFrequency(Event event) {
 		throw new UnsupportedOperationException();
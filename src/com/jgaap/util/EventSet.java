@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import com.google.common.collect.Iterators;
+
 /**
  *  A set of Events
  *  In JGAAP, an "event" is a token or feature that will be extracted from the 
@@ -71,7 +73,13 @@ public class EventSet implements Iterable<Event> {
     }
     
     public void addEvents(EventSet eventSet) {
-    	this.events.addAll(eventSet.events);
+    	if(eventSet.getClass() == EventSet.class) {
+    		this.events.addAll(eventSet.events);
+    	} else {
+    		for(Event event : eventSet) {
+    			addEvent(event);
+    		}
+    	}
     }
 
     /** Returns the total number of events in the set **/
@@ -118,7 +126,7 @@ public class EventSet implements Iterable<Event> {
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
-        for(Event event : events){
+        for(Event event : this){
         	builder.append(event).append(", ");
         }
         if(builder.length() > 1)
@@ -130,14 +138,29 @@ public class EventSet implements Iterable<Event> {
     @Override
     public boolean equals(Object o) {
     	if(o instanceof EventSet){
-    		return this.events.equals(((EventSet)o).events);
+    		EventSet eventSet = (EventSet) o;
+    		if(this.getClass() == EventSet.class && eventSet.getClass() == EventSet.class) {
+    			return this.events.equals(eventSet.events);
+    		}
+    		return size() == eventSet.size() && Iterators.elementsEqual(iterator(), eventSet.iterator());
     	}
     	return false;
     }
     
+    /**
+     * Hashes the same way as a List of the events so that equal EventSets 
+     * hash equally regardless of how they store their events
+     */
     @Override
     public int hashCode(){
-    	return events.hashCode();
+    	if(this.getClass() == EventSet.class) {
+    		return events.hashCode();
+    	}
+    	int hashCode = 1;
+    	for(Event event : this) {
+    		hashCode = 31 * hashCode + (event == null ? 0 : event.hashCode());
+    	}
+    	return hashCode;
     }
 
 	public Iterator<Event> iterator() {
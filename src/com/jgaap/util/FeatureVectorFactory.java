@@ -197,7 +197,7 @@ public class FeatureVectorFactory {
 	
 	public static double[] getNormalizedFeatures(Document document, Set<Event> vocab){
 		double[] result = new double[vocab.size()];
-		EventMap eventMap = new EventMap(document);
+		EventMap eventMap = document.getEventMap();
 		int i = 0;
 		for(Event event : vocab) {
 			result[i] = eventMap.normalizedFrequency(event);
@@ -0,0 +1,181 @@
+package com.jgaap.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An EventSet that stores the ids of its Events as given by an EventDictionary
+ * rather than the Events themselves.
+ * A document of n events costs n ints plus one shared Event per distinct event
+ * instead of n Event and n String objects.
+ *
+ * Iteration and eventAt hand back the canonical Event held by the dictionary.
+ *
+ * @since 8.0.3
+ */
+public class IndexedEventSet extends EventSet {
+
+	private final EventDictionary dictionary;
+	private int[] ids;
+	private int size;
+
+	public IndexedEventSet(EventDictionary dictionary) {
+		this(dictionary, 16);
+	}
+
+	public IndexedEventSet(EventDictionary dictionary, int size) {
+		this.dictionary = dictionary;
+		this.ids = new int[Math.max(size, 1)];
+		this.size = 0;
+	}
+
+	/**
+	 * Returns an IndexedEventSet containing the same events as eventSet.
+	 * If eventSet is already indexed by dictionary it is returned as is.
+	 *
+	 * @param eventSet
+	 * @param dictionary
+	 * @return eventSet backed by the ids of dictionary
+	 */
+	public static IndexedEventSet of(EventSet eventSet, EventDictionary dictionary) {
+		if (eventSet instanceof IndexedEventSet && ((IndexedEventSet) eventSet).dictionary == dictionary) {
+			return (IndexedEventSet) eventSet;
+		}
+		IndexedEventSet indexedEventSet = new IndexedEventSet(dictionary, eventSet.size());
+		indexedEventSet.addEvents(eventSet);
+		return indexedEventSet;
+	}
+
+	public EventDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @param index
+	 * @return the dictionary id of the event at index
+	 */
+	public int idAt(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return ids[index];
+	}
+
+	@Override
+	public Event eventAt(int index) {
+		return dictionary.event(idAt(index));
+	}
+
+	/**
+	 * Appends an event by its dictionary id
+	 * @param id
+	 */
+	public void addId(int id) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+		}
+		ids[size++] = id;
+	}
+
+	@Override
+	public void addEvent(Event event) {
+		addId(dictionary.intern(event));
+	}
+
+	/**
+	 * Appends the event this sets EventDriver would generate from data
+	 * without keeping a new Event around
+	 * @param data
+	 */
+	public void addEvent(String data) {
+		addId(dictionary.intern(data));
+	}
+
+	@Override
+	public void addEvents(List<Event> events) {
+		for (Event event : events) {
+			addEvent(event);
+		}
+	}
+
+	@Override
+	public void addEvents(EventSet eventSet) {
+		if (eventSet instanceof IndexedEventSet && ((IndexedEventSet) eventSet).dictionary == dictionary) {
+			IndexedEventSet indexedEventSet = (IndexedEventSet) eventSet;
+			for (int i = 0; i < indexedEventSet.size; i++) {
+				addId(indexedEventSet.ids[i]);
+			}
+		} else {
+			for (Event event : eventSet) {
+				addEvent(event);
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public EventSet subset(int start, int length) {
+		int to = Math.min(length, size);
+		int from = Math.min(start, to);
+		IndexedEventSet subset = new IndexedEventSet(dictionary, to - from);
+		for (int i = from; i < to; i++) {
+			subset.addId(ids[i]);
+		}
+		return subset;
+	}
+
+	/**
+	 * Same bounds checking as EventSet.subList, the list returned is a read only view
+	 */
+	@Override
+	public List<Event> subList(int start, int length) {
+		final int to = Math.min(length, size);
+		final int from = Math.min(start, to);
+		return new AbstractList<Event>() {
+			@Override
+			public Event get(int index) {
+				if (index < 0 || from + index >= to) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+				}
+				return dictionary.event(ids[from + index]);
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Event> iterator() {
+		return new Iterator<Event>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public Event next() {
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				return dictionary.event(ids[index++]);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
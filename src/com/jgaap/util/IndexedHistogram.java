@@ -0,0 +1,338 @@
+package com.jgaap.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.jgaap.generics.EventDriver;
+
+/**
+ * A Histogram of int counts keyed by the ids handed out by EventDictionary.
+ * Counts live in primitive open addressing tables, one per EventDriver, so
+ * building a histogram neither boxes nor allocates per event.
+ * Relative and normalized frequencies are derived from the counts when asked for.
+ *
+ * As with EventMap and AbsoluteHistogram relative frequencies are taken
+ * against the number of events generated by the same EventDriver.
+ *
+ * @since 8.0.3
+ */
+public class IndexedHistogram implements Histogram {
+
+	private Table[] tables;
+	private EventDictionary localDictionary;
+	private Set<Event> uniqueEvents;
+
+	public IndexedHistogram() {
+		tables = new Table[0];
+	}
+
+	public IndexedHistogram(EventSet eventSet) {
+		this();
+		add(eventSet);
+	}
+
+	public IndexedHistogram(Iterable<EventSet> eventSets) {
+		this();
+		for (EventSet eventSet : eventSets) {
+			add(eventSet);
+		}
+	}
+
+	public IndexedHistogram(Document document) {
+		this(document.getEventSets().values());
+	}
+
+	/**
+	 * Count one occurrence of event
+	 * @param event
+	 */
+	public void add(Event event) {
+		EventDictionary dictionary = dictionaryOf(event, true);
+		table(dictionary).increment(dictionary.intern(event), 1);
+	}
+
+	/**
+	 * Count every event in eventSet.
+	 * Sets indexed by their EventDrivers own dictionary are counted straight from their ids.
+	 * @param eventSet
+	 */
+	public void add(EventSet eventSet) {
+		if (eventSet instanceof IndexedEventSet && isCanonical(((IndexedEventSet) eventSet).getDictionary())) {
+			IndexedEventSet indexedEventSet = (IndexedEventSet) eventSet;
+			Table table = table(indexedEventSet.getDictionary());
+			for (int i = 0; i < indexedEventSet.size(); i++) {
+				table.increment(indexedEventSet.idAt(i), 1);
+			}
+		} else {
+			for (Event event : eventSet) {
+				add(event);
+			}
+		}
+	}
+
+	@Override
+	public int absoluteFrequency(Event event) {
+		EventDictionary dictionary = dictionaryOf(event, false);
+		Table table = find(dictionary);
+		if (table == null) {
+			return 0;
+		}
+		int id = dictionary.id(event);
+		if (id < 0) {
+			return 0;
+		}
+		return table.get(id);
+	}
+
+	@Override
+	public double relativeFrequency(Event event) {
+		EventDictionary dictionary = dictionaryOf(event, false);
+		Table table = find(dictionary);
+		if (table == null) {
+			return 0.0;
+		}
+		int id = dictionary.id(event);
+		if (id < 0) {
+			return 0.0;
+		}
+		int count = table.get(id);
+		if (count == 0) {
+			return 0.0;
+		}
+		return count / (double) table.tokens;
+	}
+
+	@Override
+	public double normalizedFrequency(Event event) {
+		return relativeFrequency(event) * 100000;
+	}
+
+	@Override
+	public boolean contains(Event event) {
+		return absoluteFrequency(event) != 0;
+	}
+
+	/**
+	 * @return a live read only view of the events counted
+	 */
+	@Override
+	public Set<Event> uniqueEvents() {
+		if (uniqueEvents == null) {
+			uniqueEvents = new UniqueEvents();
+		}
+		return uniqueEvents;
+	}
+
+	/**
+	 * @return the total number of events counted
+	 */
+	public int getNTokens() {
+		int tokens = 0;
+		for (Table table : tables) {
+			tokens += table.tokens;
+		}
+		return tokens;
+	}
+
+	/**
+	 * @return the number of distinct events counted
+	 */
+	public int getNTypes() {
+		int types = 0;
+		for (Table table : tables) {
+			types += table.types;
+		}
+		return types;
+	}
+
+	Table[] getTables() {
+		return tables;
+	}
+
+	/**
+	 * The dictionary that owns event, events without an EventDriver are
+	 * kept in a dictionary private to this histogram which is only created when adding
+	 */
+	private EventDictionary dictionaryOf(Event event, boolean adding) {
+		EventDriver eventDriver = event.getEventDriver();
+		if (eventDriver != null) {
+			return eventDriver.getEventDictionary();
+		}
+		if (localDictionary == null && adding) {
+			localDictionary = new EventDictionary(null);
+		}
+		return localDictionary;
+	}
+
+	private boolean isCanonical(EventDictionary dictionary) {
+		if (dictionary.hasForeignEvents()) {
+			return false;
+		}
+		EventDriver eventDriver = dictionary.getEventDriver();
+		if (eventDriver == null) {
+			return dictionary == localDictionary;
+		}
+		return eventDriver.getEventDictionary() == dictionary;
+	}
+
+	private Table find(EventDictionary dictionary) {
+		if (dictionary == null) {
+			return null;
+		}
+		for (Table table : tables) {
+			if (table.dictionary == dictionary) {
+				return table;
+			}
+		}
+		return null;
+	}
+
+	private Table table(EventDictionary dictionary) {
+		Table table = find(dictionary);
+		if (table == null) {
+			table = new Table(dictionary);
+			tables = Arrays.copyOf(tables, tables.length + 1);
+			tables[tables.length - 1] = table;
+		}
+		return table;
+	}
+
+	/**
+	 * Linear probing int to int table.
+	 * Keys are stored as id+1 so that a freshly allocated array is already empty.
+	 */
+	static final class Table {
+
+		final EventDictionary dictionary;
+		int[] keys;
+		int[] counts;
+		int shift;
+		int types;
+		int tokens;
+
+		Table(EventDictionary dictionary) {
+			this.dictionary = dictionary;
+			this.keys = new int[64];
+			this.counts = new int[64];
+			this.shift = 32 - 6;
+		}
+
+		private int slot(int id) {
+			return (id * 0x9E3779B9) >>> shift;
+		}
+
+		int get(int id) {
+			int key = id + 1;
+			int mask = keys.length - 1;
+			for (int i = slot(id); ; i = (i + 1) & mask) {
+				int current = keys[i];
+				if (current == key) {
+					return counts[i];
+				}
+				if (current == 0) {
+					return 0;
+				}
+			}
+		}
+
+		void increment(int id, int count) {
+			int key = id + 1;
+			int mask = keys.length - 1;
+			int i = slot(id);
+			while (keys[i] != 0 && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			counts[i] += count;
+			tokens += count;
+			if (keys[i] == 0) {
+				keys[i] = key;
+				types++;
+				if (types * 4 > keys.length * 3) {
+					grow();
+				}
+			}
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			int[] oldCounts = counts;
+			keys = new int[oldKeys.length * 2];
+			counts = new int[oldKeys.length * 2];
+			shift--;
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				int key = oldKeys[j];
+				if (key != 0) {
+					int i = slot(key - 1);
+					while (keys[i] != 0) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = key;
+					counts[i] = oldCounts[j];
+				}
+			}
+		}
+	}
+
+	private class UniqueEvents extends AbstractSet<Event> {
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Event && IndexedHistogram.this.contains((Event) o);
+		}
+
+		@Override
+		public int size() {
+			return getNTypes();
+		}
+
+		@Override
+		public Iterator<Event> iterator() {
+			return new Iterator<Event>() {
+				private int table = 0;
+				private int slot = -1;
+
+				{
+					advance();
+				}
+
+				private void advance() {
+					while (table < tables.length) {
+						int[] keys = tables[table].keys;
+						for (slot++; slot < keys.length; slot++) {
+							if (keys[slot] != 0) {
+								return;
+							}
+						}
+						table++;
+						slot = -1;
+					}
+				}
+
+				@Override
+				public boolean hasNext() {
+					return table < tables.length;
+				}
+
+				@Override
+				public Event next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					Table current = tables[table];
+					Event event = current.dictionary.event(current.keys[slot] - 1);
+					advance();
+					return event;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+}
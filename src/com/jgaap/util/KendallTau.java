@@ -0,0 +1,103 @@
+package com.jgaap.util;
+
+import java.util.Arrays;
+
+/**
+ * Kendall rank correlation over primitive rank arrays in O(n log n), after
+ * William Knight, A Computer Method for Calculating Kendall's Tau with Ungrouped Data (1966).
+ * The pairs are sorted by x then y and the discordant pairs are counted as
+ * the inversions a merge sort of the y column has to undo.
+ *
+ * @since 8.0.3
+ */
+public class KendallTau {
+
+	private KendallTau() {
+	}
+
+	/**
+	 * @param values
+	 * @return the number of pairs i &lt; j with values[j] &lt; values[i], values is left untouched
+	 */
+	public static long inversions(int[] values) {
+		int[] sorted = values.clone();
+		return sort(sorted, new int[sorted.length], 0, sorted.length);
+	}
+
+	/**
+	 * Merge sorts values[from, to) counting the inversions undone
+	 */
+	private static long sort(int[] values, int[] buffer, int from, int to) {
+		if (to - from < 2) {
+			return 0;
+		}
+		int middle = (from + to) >>> 1;
+		long inversions = sort(values, buffer, from, middle) + sort(values, buffer, middle, to);
+		if (values[middle - 1] <= values[middle]) {
+			return inversions;
+		}
+		int i = from, j = middle, k = from;
+		while (i < middle && j < to) {
+			if (values[j] < values[i]) {
+				inversions += middle - i;
+				buffer[k++] = values[j++];
+			} else {
+				buffer[k++] = values[i++];
+			}
+		}
+		while (i < middle) {
+			buffer[k++] = values[i++];
+		}
+		while (j < to) {
+			buffer[k++] = values[j++];
+		}
+		System.arraycopy(buffer, from, values, from, to - from);
+		return inversions;
+	}
+
+	/**
+	 * The number of concordant minus the number of discordant pairs (x[i], y[i]), (x[j], y[j]).
+	 * Pairs tied in x or in y are neither.
+	 * @param x non negative ranks
+	 * @param y non negative ranks parallel to x
+	 * @return concordant - discordant over the n(n-1)/2 unordered pairs
+	 */
+	public static long concordance(int[] x, int[] y) {
+		int n = x.length;
+		long[] pairs = new long[n];
+		int[] ys = new int[n];
+		for (int i = 0; i < n; i++) {
+			pairs[i] = ((long) x[i] << 32) | y[i];
+			ys[i] = y[i];
+		}
+		Arrays.sort(pairs);
+		Arrays.sort(ys);
+		int[] column = new int[n];
+		for (int i = 0; i < n; i++) {
+			column[i] = (int) pairs[i];
+		}
+		long xTies = 0, jointTies = 0, yTies = 0;
+		for (int i = 0, xRun = 1, jointRun = 1, yRun = 1; i < n; i++) {
+			if (i + 1 < n && (pairs[i + 1] >>> 32) == (pairs[i] >>> 32)) {
+				xRun++;
+			} else {
+				xTies += xRun * (xRun - 1L) / 2;
+				xRun = 1;
+			}
+			if (i + 1 < n && pairs[i + 1] == pairs[i]) {
+				jointRun++;
+			} else {
+				jointTies += jointRun * (jointRun - 1L) / 2;
+				jointRun = 1;
+			}
+			if (i + 1 < n && ys[i + 1] == ys[i]) {
+				yRun++;
+			} else {
+				yTies += yRun * (yRun - 1L) / 2;
+				yRun = 1;
+			}
+		}
+		long total = n * (n - 1L) / 2;
+		return total - xTies - yTies + jointTies - 2 * inversions(column);
+	}
+}
@@ -0,0 +1,201 @@
+package com.jgaap.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locality sensitive hashing over SparseHistograms, used to pick a small set of
+ * candidate neighbors that are then ranked exactly by the DistanceFunction.
+ *
+ * Each histogram gets a signature of bands*rows hashes, two histograms become
+ * candidates for each other when all rows of any one band agree. More rows make
+ * candidates rarer, more bands make near neighbors less likely to be missed.
+ *
+ * SIMHASH signs random hyperplanes through the frequency vector and tracks
+ * angular (cosine) similarity, MINHASH takes the minimum hash of the events
+ * present and tracks the Jaccard similarity of the event sets.
+ *
+ * @since 8.0.3
+ */
+public class LocalitySensitiveIndex {
+
+	public enum Family {
+		SIMHASH(64, 12), MINHASH(64, 3);
+
+		private final int bands;
+		private final int rows;
+
+		private Family(int bands, int rows) {
+			this.bands = bands;
+			this.rows = rows;
+		}
+
+		/**
+		 * @return the bands used when none are asked for
+		 */
+		public int getBands() {
+			return bands;
+		}
+
+		/**
+		 * @return the rows used when none are asked for
+		 */
+		public int getRows() {
+			return rows;
+		}
+	}
+
+	private final Family family;
+	private final int bands;
+	private final int rows;
+	private final int size;
+	private final List<Map<Long, int[]>> buckets;
+
+	/**
+	 * @param histograms the histograms to index, candidates are returned as indices into this list
+	 * @param family hashed with its default bands and rows
+	 */
+	public LocalitySensitiveIndex(List<SparseHistogram> histograms, Family family) {
+		this(histograms, family, family.getBands(), family.getRows());
+	}
+
+	/**
+	 * @param histograms the histograms to index, candidates are returned as indices into this list
+	 * @param family
+	 * @param bands
+	 * @param rows at most 64 for SIMHASH
+	 */
+	public LocalitySensitiveIndex(List<SparseHistogram> histograms, Family family, int bands, int rows) {
+		if (bands < 1 || rows < 1 || (family == Family.SIMHASH && rows > 64)) {
+			throw new IllegalArgumentException("Can not hash with " + bands + " bands of " + rows + " rows");
+		}
+		this.family = family;
+		this.bands = bands;
+		this.rows = rows;
+		this.size = histograms.size();
+		Map<Long, int[]>[] bandBuckets = newBuckets(bands);
+		for (int i = 0; i < histograms.size(); i++) {
+			long[] signature = signature(histograms.get(i));
+			for (int band = 0; band < bands; band++) {
+				int[] bucket = bandBuckets[band].get(signature[band]);
+				if (bucket == null) {
+					bucket = new int[] { i };
+				} else {
+					bucket = Arrays.copyOf(bucket, bucket.length + 1);
+					bucket[bucket.length - 1] = i;
+				}
+				bandBuckets[band].put(signature[band], bucket);
+			}
+		}
+		this.buckets = Arrays.asList(bandBuckets);
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static Map<Long, int[]>[] newBuckets(int bands) {
+		Map<Long, int[]>[] bandBuckets = new Map[bands];
+		for (int band = 0; band < bands; band++) {
+			bandBuckets[band] = new HashMap<Long, int[]>();
+		}
+		return bandBuckets;
+	}
+
+	/**
+	 * @param histogram
+	 * @return the indices, in ascending order, of the indexed histograms sharing a band with histogram
+	 */
+	public int[] candidates(SparseHistogram histogram) {
+		long[] signature = signature(histogram);
+		boolean[] seen = new boolean[size];
+		int count = 0;
+		for (int band = 0; band < bands; band++) {
+			int[] bucket = buckets.get(band).get(signature[band]);
+			if (bucket != null) {
+				for (int i : bucket) {
+					if (!seen[i]) {
+						seen[i] = true;
+						count++;
+					}
+				}
+			}
+		}
+		int[] candidates = new int[count];
+		for (int i = 0, j = 0; i < size; i++) {
+			if (seen[i]) {
+				candidates[j++] = i;
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return the number of histograms indexed
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * One hash per band summarizing the rows of that band
+	 */
+	private long[] signature(SparseHistogram histogram) {
+		long[] hashes = histogram.getHashes();
+		double[] frequencies = histogram.getFrequencies();
+		long[] signature = new long[bands];
+		if (family == Family.SIMHASH) {
+			// each bit of one hash of an event gives its side of one hyperplane
+			double[] projections = new double[rows];
+			for (int band = 0; band < bands; band++) {
+				Arrays.fill(projections, 0.0);
+				for (int i = 0; i < hashes.length; i++) {
+					long sides = mix(hashes[i] + band * 0x9E3779B97F4A7C15L);
+					for (int row = 0; row < rows; row++) {
+						if (((sides >>> row) & 1) == 0) {
+							projections[row] += frequencies[i];
+						} else {
+							projections[row] -= frequencies[i];
+						}
+					}
+				}
+				long bits = 0;
+				for (int row = 0; row < rows; row++) {
+					if (projections[row] >= 0) {
+						bits |= 1L << row;
+					}
+				}
+				signature[band] = bits;
+			}
+		} else {
+			// the i-th hash of an event is first + i * second, only two real hashes per event are needed
+			long[] first = new long[hashes.length];
+			long[] second = new long[hashes.length];
+			for (int i = 0; i < hashes.length; i++) {
+				first[i] = mix(hashes[i]);
+				second[i] = mix(first[i]) | 1;
+			}
+			for (int band = 0; band < bands; band++) {
+				long hash = band;
+				for (int row = 0; row < rows; row++) {
+					long function = band * rows + row;
+					long minimum = Long.MAX_VALUE;
+					for (int i = 0; i < hashes.length; i++) {
+						minimum = Math.min(minimum, first[i] + function * second[i]);
+					}
+					hash = mix(hash ^ minimum);
+				}
+				signature[band] = hash;
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * The splitmix64 finalizer
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,264 @@
+package com.jgaap.util;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Accounts for the heap the runs in this JVM are expected to use, so that new
+ * documents and experiments are only admitted while the projected total stays
+ * under a fraction of the maximum heap.
+ *
+ * The fraction is read from the jgaap.memory system property (default 0.75).
+ * Sizes are estimates from the lengths of texts and event sets, not
+ * measurements, so they stay the same from run to run whatever the garbage
+ * collector is doing. Each run charges an Account, which remembers the
+ * run's peak.
+ *
+ * Admission never waits on other runs: something is always admitted when
+ * the caller has nothing of its own in flight, so runs cannot deadlock on
+ * each other's reservations, at worst they go one at a time.
+ *
+ * @since 8.0.3
+ */
+public class MemoryBudget {
+
+	private static final Logger logger = Logger.getLogger(MemoryBudget.class);
+
+	public static final String FRACTION_PROPERTY = "jgaap.memory";
+
+	static final long MEGABYTE = 1024 * 1024;
+	static final int ARRAY_BYTES = 16;
+	static final int EVENT_BYTES = 64;
+	static final int HISTOGRAM_ENTRY_BYTES = 48;
+
+	private static MemoryBudget shared;
+
+	private final long limit;
+	private long used;
+	private long peak;
+
+	/**
+	 * @param limit the bytes admission keeps the projected total under
+	 */
+	public MemoryBudget(long limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * @return the budget shared by every run in this JVM, created from the system properties on first use
+	 */
+	public static synchronized MemoryBudget getShared() {
+		if (shared == null) {
+			double fraction = 0.75;
+			try {
+				fraction = Double.parseDouble(System.getProperty(FRACTION_PROPERTY, Double.toString(fraction)));
+			} catch (NumberFormatException e) {
+				logger.warn("Ignoring " + FRACTION_PROPERTY + "=" + System.getProperty(FRACTION_PROPERTY));
+			}
+			shared = new MemoryBudget((long) (Math.max(0, fraction) * Runtime.getRuntime().maxMemory()));
+		}
+		return shared;
+	}
+
+	/**
+	 * @return the bytes admission keeps the projected total under
+	 */
+	public long getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return the bytes currently reserved or charged
+	 */
+	public synchronized long getUsed() {
+		return used;
+	}
+
+	/**
+	 * @return the most bytes reserved or charged at once
+	 */
+	public synchronized long getPeak() {
+		return peak;
+	}
+
+	synchronized boolean tryReserve(long bytes) {
+		if (used + bytes > limit && bytes > 0) {
+			return false;
+		}
+		reserve(bytes);
+		return true;
+	}
+
+	synchronized void reserve(long bytes) {
+		used += bytes;
+		peak = Math.max(peak, used);
+	}
+
+	/**
+	 * Opens an account holding bytes whether or not they fit, for a caller with nothing else in flight
+	 * @param bytes the estimate reserved up front
+	 * @return the account
+	 */
+	public Account open(long bytes) {
+		reserve(bytes);
+		return new Account(bytes);
+	}
+
+	/**
+	 * @param bytes the estimate reserved up front
+	 * @return an account holding bytes, or null if they do not fit
+	 */
+	public Account tryOpen(long bytes) {
+		return tryReserve(bytes) ? new Account(bytes) : null;
+	}
+
+	/**
+	 * @param text
+	 * @return the estimated bytes of text
+	 */
+	public static long estimate(char[] text) {
+		return ARRAY_BYTES + 2L * text.length;
+	}
+
+	/**
+	 * @param eventSet
+	 * @return the estimated bytes of eventSet, not counting the dictionary an IndexedEventSet shares
+	 */
+	public static long estimate(EventSet eventSet) {
+		if (eventSet instanceof IndexedEventSet) {
+			return ARRAY_BYTES + 4L * eventSet.size();
+		}
+		long bytes = ARRAY_BYTES + 4L * eventSet.size();
+		for (Event event : eventSet) {
+			bytes += EVENT_BYTES + 2L * event.toString().length();
+		}
+		return bytes;
+	}
+
+	/**
+	 * @param document
+	 * @return the estimated bytes of the text and event sets document holds
+	 */
+	public static long estimate(Document document) {
+		long bytes = estimate(document.getText());
+		for (EventSet eventSet : document.getEventSets().values()) {
+			bytes += estimate(eventSet);
+		}
+		return bytes;
+	}
+
+	/**
+	 * The bytes a document is expected to need before it is loaded, its text
+	 * while it is canonicized plus an indexed event set per event driver of
+	 * about one event per character
+	 * @param document
+	 * @param eventDrivers the number of event sets it will hold
+	 * @return the estimate, 0 when the document is not a local file
+	 */
+	public static long estimateLoad(Document document, int eventDrivers) {
+		File file = new File(document.getFilePath());
+		return file.isFile() ? file.length() * (2 + 4L * eventDrivers) : 0;
+	}
+
+	/**
+	 * An upper bound on what a model trained on documents holds, one histogram
+	 * entry per distinct event of each known document
+	 * @param knownDocuments
+	 * @return the estimated bytes
+	 */
+	public static long estimateModel(List<Document> knownDocuments) {
+		long bytes = 0;
+		for (Document document : knownDocuments) {
+			for (EventSet eventSet : document.getEventSets().values()) {
+				long distinct = eventSet.size();
+				if (eventSet instanceof IndexedEventSet) {
+					distinct = Math.min(distinct, ((IndexedEventSet) eventSet).getDictionary().size());
+				}
+				bytes += HISTOGRAM_ENTRY_BYTES * distinct;
+			}
+		}
+		return bytes;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return (used / MEGABYTE) + " MB in use, peak " + (peak / MEGABYTE) + " MB of " + (limit / MEGABYTE) + " MB";
+	}
+
+	/**
+	 * What one run has reserved and charged. The bytes charged beyond the
+	 * reservation come out of the budget, close gives everything back.
+	 */
+	public class Account {
+
+		private long reserved;
+		private long used;
+		private long excess;
+		private long peak;
+
+		private Account(long reserved) {
+			this.reserved = reserved;
+		}
+
+		/**
+		 * Charges bytes if they fit
+		 * @param bytes
+		 * @return whether they were charged
+		 */
+		public synchronized boolean tryCharge(long bytes) {
+			long newExcess = Math.max(0, used + bytes - reserved);
+			if (newExcess > excess && !tryReserve(newExcess - excess)) {
+				return false;
+			}
+			apply(bytes, newExcess);
+			return true;
+		}
+
+		/**
+		 * Charges bytes whether or not they fit, negative bytes give some back
+		 * @param bytes
+		 */
+		public synchronized void charge(long bytes) {
+			long newExcess = Math.max(0, used + bytes - reserved);
+			reserve(newExcess - excess);
+			apply(bytes, newExcess);
+		}
+
+		private void apply(long bytes, long newExcess) {
+			used += bytes;
+			excess = newExcess;
+			peak = Math.max(peak, used);
+		}
+
+		/**
+		 * @return the bytes charged so far
+		 */
+		public synchronized long getUsed() {
+			return used;
+		}
+
+		/**
+		 * @return the most bytes charged at once
+		 */
+		public synchronized long getPeak() {
+			return peak;
+		}
+
+		/**
+		 * Gives the reservation and everything charged back to the budget
+		 */
+		public synchronized void close() {
+			reserve(-(reserved + excess));
+			reserved = 0;
+			used = 0;
+			excess = 0;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return (used / MEGABYTE) + " MB in use, peak " + (peak / MEGABYTE) + " MB";
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.jgaap.util;
+
+/**
+ * Keeps the k smallest distances offered to it in a bounded max heap.
+ * Distances are ordered as Double.compare orders them, equal distances
+ * by the index they were offered with, so the k kept are the first k a
+ * stable sort of every distance would give.
+ *
+ * @since 8.0.3
+ */
+public class NearestNeighbors {
+
+	private final int k;
+	private final int[] indices;
+	private final double[] distances;
+	private int size;
+
+	public NearestNeighbors(int k) {
+		this.k = Math.max(k, 0);
+		this.indices = new int[this.k];
+		this.distances = new double[this.k];
+		this.size = 0;
+	}
+
+	/**
+	 * A distance larger than the bound can not make it into the k nearest,
+	 * so a distance calculation can give up once it passes it.
+	 * @return the largest distance kept once k have been kept, positive infinity until then
+	 */
+	public double bound() {
+		if (size < k) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if (k == 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		return distances[0];
+	}
+
+	/**
+	 * @param index
+	 * @param distance
+	 * @return true if the distance was kept
+	 */
+	public boolean offer(int index, double distance) {
+		if (size < k) {
+			int child = size++;
+			while (child > 0) {
+				int parent = (child - 1) / 2;
+				if (!greater(distance, index, distances[parent], indices[parent])) {
+					break;
+				}
+				distances[child] = distances[parent];
+				indices[child] = indices[parent];
+				child = parent;
+			}
+			distances[child] = distance;
+			indices[child] = index;
+			return true;
+		}
+		if (k == 0 || !greater(distances[0], indices[0], distance, index)) {
+			return false;
+		}
+		siftDown(index, distance, size);
+		return true;
+	}
+
+	/**
+	 * @return the number of distances kept, at most k
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the indices kept, nearest first
+	 */
+	public int[] indices() {
+		int[] sortedIndices = new int[size];
+		sort(sortedIndices, new double[size]);
+		return sortedIndices;
+	}
+
+	/**
+	 * @return the distances kept in the same order as indices()
+	 */
+	public double[] distances() {
+		double[] sortedDistances = new double[size];
+		sort(new int[size], sortedDistances);
+		return sortedDistances;
+	}
+
+	private void sort(int[] sortedIndices, double[] sortedDistances) {
+		int[] heapIndices = indices.clone();
+		double[] heapDistances = distances.clone();
+		int n = size;
+		for (int i = size - 1; i >= 0; i--) {
+			sortedIndices[i] = heapIndices[0];
+			sortedDistances[i] = heapDistances[0];
+			n--;
+			siftDown(heapIndices, heapDistances, heapIndices[n], heapDistances[n], n);
+		}
+	}
+
+	private void siftDown(int index, double distance, int n) {
+		siftDown(indices, distances, index, distance, n);
+	}
+
+	private static void siftDown(int[] indices, double[] distances, int index, double distance, int n) {
+		int parent = 0;
+		while (true) {
+			int child = 2 * parent + 1;
+			if (child >= n) {
+				break;
+			}
+			if (child + 1 < n && greater(distances[child + 1], indices[child + 1], distances[child], indices[child])) {
+				child++;
+			}
+			if (!greater(distances[child], indices[child], distance, index)) {
+				break;
+			}
+			distances[parent] = distances[child];
+			indices[parent] = indices[child];
+			parent = child;
+		}
+		if (n > 0) {
+			distances[parent] = distance;
+			indices[parent] = index;
+		}
+	}
+
+	private static boolean greater(double distance1, int index1, double distance2, int index2) {
+		int compare = Double.compare(distance1, distance2);
+		return compare > 0 || (compare == 0 && index1 > index2);
+	}
+}
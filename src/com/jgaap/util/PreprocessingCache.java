@@ -0,0 +1,498 @@
+package com.jgaap.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.jgaap.generics.Canonicizer;
+import com.jgaap.generics.EventDriver;
+import com.jgaap.generics.Language;
+
+/**
+ * Remembers canonicized text and EventSets across runs so that experiments
+ * varying only the analysis do not read, canonicize and eventify the same
+ * documents again.
+ *
+ * Entries are keyed by what they were made from: a digest of the loaded text,
+ * the Language, the Canonicizers and for EventSets the EventDriver with its own
+ * Canonicizers, each by class and parameters.
+ *
+ * There are two tiers. An in memory LRU bounded by the characters it holds
+ * (jgaap.cache.memory megabytes, default 64, 0 turns it off) and, when
+ * jgaap.cache.dir names a directory, one small binary file per entry there
+ * (jgaap.cache.disk megabytes, default 1024) evicted least recently used first.
+ * Every file carries its key and a CRC32, a file that fails either check is a miss.
+ * The cache never fails a run, problems reading or writing it are logged and ignored.
+ *
+ * @since 8.0.3
+ */
+public class PreprocessingCache {
+
+	private static final Logger logger = Logger.getLogger(PreprocessingCache.class);
+
+	public static final String MEMORY_PROPERTY = "jgaap.cache.memory";
+	public static final String DIRECTORY_PROPERTY = "jgaap.cache.dir";
+	public static final String DISK_PROPERTY = "jgaap.cache.disk";
+
+	private static final long MEGABYTE = 1024 * 1024;
+	private static final int MAGIC = 0x4A474331;
+	private static final String SUFFIX = ".bin";
+
+	private static final byte TEXT = 0;
+	private static final byte EVENTS = 1;
+	private static final byte NUMERIC_EVENTS = 2;
+
+	private static PreprocessingCache shared;
+
+	private final Cache<String, Entry> memory;
+	private final File directory;
+	private final long diskLimit;
+	private final AtomicLong diskSize = new AtomicLong(-1);
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param memoryLimit bytes held in memory, 0 for no memory tier
+	 * @param directory where entries are written, null for no disk tier
+	 * @param diskLimit bytes kept in directory
+	 */
+	public PreprocessingCache(long memoryLimit, File directory, long diskLimit) {
+		if (memoryLimit > 0) {
+			memory = CacheBuilder.newBuilder().maximumWeight(memoryLimit).weigher(new Weigher<String, Entry>() {
+				@Override
+				public int weigh(String key, Entry entry) {
+					return 2 * key.length() + entry.weight;
+				}
+			}).build();
+		} else {
+			memory = null;
+		}
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			logger.warn("Could not create cache directory " + directory + ", caching in memory only");
+			directory = null;
+		}
+		this.directory = directory;
+		this.diskLimit = diskLimit;
+	}
+
+	/**
+	 * @return the cache shared by every API in this JVM, created from the system properties on first use
+	 */
+	public static synchronized PreprocessingCache getShared() {
+		if (shared == null) {
+			shared = fromProperties(null);
+		}
+		return shared;
+	}
+
+	/**
+	 * @param directory the disk tier when jgaap.cache.dir is not set, null for none
+	 * @return a cache configured by the system properties
+	 */
+	public static PreprocessingCache fromProperties(File directory) {
+		long memoryLimit = Math.max(0, Long.getLong(MEMORY_PROPERTY, 64)) * MEGABYTE;
+		String path = System.getProperty(DIRECTORY_PROPERTY);
+		long diskLimit = Math.max(0, Long.getLong(DISK_PROPERTY, 1024)) * MEGABYTE;
+		return new PreprocessingCache(memoryLimit, path == null || path.isEmpty() ? directory : new File(path), diskLimit);
+	}
+
+	/**
+	 * Replaces the shared cache
+	 * @param cache
+	 */
+	public static synchronized void configure(PreprocessingCache cache) {
+		shared = cache;
+	}
+
+	/**
+	 * @param text the text of a document as loaded
+	 * @return a hex SHA-256 of text
+	 */
+	public static String digest(char[] text) {
+		MessageDigest digest = sha256();
+		byte[] buffer = new byte[8192];
+		for (int i = 0; i < text.length;) {
+			int length = 0;
+			for (; length < buffer.length && i < text.length; i++) {
+				buffer[length++] = (byte) (text[i] >> 8);
+				buffer[length++] = (byte) text[i];
+			}
+			digest.update(buffer, 0, length);
+		}
+		return hex(digest.digest());
+	}
+
+	/**
+	 * @param digest the digest of the loaded text
+	 * @param language
+	 * @param canonicizers applied to the whole document in order
+	 * @return the key of the canonicized text
+	 */
+	public static String textKey(String digest, Language language, List<Canonicizer> canonicizers) {
+		StringBuilder key = new StringBuilder(digest).append('|').append(language.getClass().getName());
+		for (Canonicizer canonicizer : canonicizers) {
+			key.append('|').append(canonicizer.getClass().getName()).append('{').append(canonicizer.getParameters()).append('}');
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @param textKey the key of the canonicized text the EventDriver reads
+	 * @param eventDriver
+	 * @return the key of the EventSet eventDriver makes from that text
+	 */
+	public static String eventSetKey(String textKey, EventDriver eventDriver) {
+		StringBuilder key = new StringBuilder(textKey);
+		for (Canonicizer canonicizer : eventDriver.getCanonicizers()) {
+			key.append('|').append(canonicizer.getClass().getName()).append('{').append(canonicizer.getParameters()).append('}');
+		}
+		return key.append('>').append(eventDriver.getClass().getName()).append('{').append(eventDriver.getParameters()).append('}').toString();
+	}
+
+	/**
+	 * @param key from textKey
+	 * @return the canonicized text or null if it is not cached
+	 */
+	public char[] getText(String key) {
+		Entry entry = get(key);
+		if (entry == null || entry.kind != TEXT) {
+			return null;
+		}
+		return entry.values[0].toCharArray();
+	}
+
+	/**
+	 * @param key from textKey
+	 * @param text the canonicized text
+	 */
+	public void putText(String key, char[] text) {
+		put(key, new Entry(TEXT, new String[] { new String(text) }));
+	}
+
+	/**
+	 * @param key from eventSetKey
+	 * @param eventDriver the EventDriver the events belong to
+	 * @return a copy of the cached EventSet or null if it is not cached
+	 */
+	public EventSet getEventSet(String key, EventDriver eventDriver) {
+		Entry entry = get(key);
+		if (entry == null || entry.kind == TEXT) {
+			return null;
+		}
+		if (entry.kind == NUMERIC_EVENTS) {
+			EventSet eventSet = new NumericEventSet();
+			for (String value : entry.values) {
+				eventSet.addEvent(new Event(value, eventDriver));
+			}
+			return eventSet;
+		}
+		IndexedEventSet eventSet = new IndexedEventSet(eventDriver.getEventDictionary(), entry.values.length);
+		for (String value : entry.values) {
+			if (value == null) {
+				eventSet.addEvent(new Event(value, eventDriver));
+			} else {
+				eventSet.addEvent(value);
+			}
+		}
+		return eventSet;
+	}
+
+	/**
+	 * EventSets of classes other than EventSet, IndexedEventSet and NumericEventSet are not cached,
+	 * neither are those holding Events of another EventDriver
+	 * @param key from eventSetKey
+	 * @param eventDriver the EventDriver that made eventSet
+	 * @param eventSet what the EventDriver made
+	 */
+	public void putEventSet(String key, EventDriver eventDriver, EventSet eventSet) {
+		byte kind;
+		if (eventSet.getClass() == NumericEventSet.class) {
+			kind = NUMERIC_EVENTS;
+		} else if (eventSet.getClass() == EventSet.class || eventSet.getClass() == IndexedEventSet.class) {
+			kind = EVENTS;
+		} else {
+			return;
+		}
+		String[] values = new String[eventSet.size()];
+		int i = 0;
+		for (Event event : eventSet) {
+			if (event.getEventDriver() != eventDriver) {
+				return;
+			}
+			values[i++] = event.toString();
+		}
+		put(key, new Entry(kind, values));
+	}
+
+	/**
+	 * @return true if entries outlive the JVM
+	 */
+	public boolean isPersistent() {
+		return directory != null;
+	}
+
+	/**
+	 * @return the lookups answered from either tier
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the lookups answered by neither tier
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	private Entry get(String key) {
+		Entry entry = memory == null ? null : memory.getIfPresent(key);
+		if (entry == null && directory != null) {
+			entry = read(key);
+			if (entry != null && memory != null) {
+				memory.put(key, entry);
+			}
+		}
+		(entry == null ? misses : hits).incrementAndGet();
+		return entry;
+	}
+
+	private void put(String key, Entry entry) {
+		if (memory != null) {
+			memory.put(key, entry);
+		}
+		if (directory != null) {
+			write(key, entry);
+		}
+	}
+
+	private File file(String key) {
+		String name = hex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+		return new File(new File(directory, name.substring(0, 2)), name.substring(2) + SUFFIX);
+	}
+
+	private Entry read(String key) {
+		File file = file(key);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			if (bytes.length < 8 || checksum(bytes, bytes.length - 8) != new DataInputStream(
+					new ByteArrayInputStream(bytes, bytes.length - 8, 8)).readLong()) {
+				logger.warn("Discarding corrupt cache file " + file);
+				delete(file);
+				return null;
+			}
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+			if (in.readInt() != MAGIC || !key.equals(in.readUTF())) {
+				return null;
+			}
+			byte kind = in.readByte();
+			String[] values = new String[in.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readString(in);
+			}
+			file.setLastModified(System.currentTimeMillis());
+			return new Entry(kind, values);
+		} catch (IOException e) {
+			logger.warn("Could not read cache file " + file, e);
+			return null;
+		}
+	}
+
+	private void write(String key, Entry entry) {
+		File file = file(key);
+		File parent = file.getParentFile();
+		File temporary = null;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entry.weight);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(MAGIC);
+			out.writeUTF(key);
+			out.writeByte(entry.kind);
+			out.writeInt(entry.values.length);
+			for (String value : entry.values) {
+				writeString(out, value);
+			}
+			out.flush();
+			out.writeLong(checksum(bytes.toByteArray(), bytes.size()));
+			out.flush();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException("Could not create " + parent);
+			}
+			temporary = File.createTempFile("entry", ".tmp", parent);
+			OutputStream stream = new FileOutputStream(temporary);
+			try {
+				bytes.writeTo(stream);
+			} finally {
+				stream.close();
+			}
+			long previous = file.isFile() ? file.length() : 0;
+			try {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			temporary = null;
+			if (diskSize.get() < 0) {
+				evict();
+			} else if (diskSize.addAndGet(bytes.size() - previous) > diskLimit) {
+				evict();
+			}
+		} catch (IOException e) {
+			logger.warn("Could not write cache file " + file, e);
+		} finally {
+			if (temporary != null) {
+				delete(temporary);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files until the directory is back under 90% of its limit
+	 */
+	private synchronized void evict() {
+		List<File> files = new ArrayList<File>();
+		File[] parents = directory.listFiles();
+		if (parents != null) {
+			for (File parent : parents) {
+				File[] children = parent.isDirectory() ? parent.listFiles() : null;
+				if (children != null) {
+					for (File child : children) {
+						if (child.getName().endsWith(SUFFIX)) {
+							files.add(child);
+						}
+					}
+				}
+			}
+		}
+		long size = 0;
+		final long[] used = new long[files.size()];
+		for (int i = 0; i < used.length; i++) {
+			used[i] = files.get(i).lastModified();
+			size += files.get(i).length();
+		}
+		if (size > diskLimit) {
+			Integer[] order = new Integer[used.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Long.compare(used[a], used[b]);
+				}
+			});
+			long target = diskLimit - diskLimit / 10;
+			for (int i = 0; i < order.length && size > target; i++) {
+				File file = files.get(order[i]);
+				long length = file.length();
+				if (delete(file)) {
+					size -= length;
+				}
+			}
+		}
+		diskSize.set(size);
+	}
+
+	private static boolean delete(File file) {
+		try {
+			return Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			logger.warn("Could not delete cache file " + file, e);
+			return false;
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long checksum(byte[] bytes, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, length);
+		return crc.getValue();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required of every JVM", e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(2 * bytes.length);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "hits " + hits.get() + ", misses " + misses.get()
+				+ (memory == null ? "" : ", in memory " + memory.size())
+				+ (directory == null ? "" : ", on disk " + diskSize.get() / MEGABYTE + "MB in " + directory);
+	}
+
+	/**
+	 * What is cached, the canonicized text as a single value or the data of each Event
+	 */
+	private static class Entry {
+
+		final byte kind;
+		final String[] values;
+		final int weight;
+
+		Entry(byte kind, String[] values) {
+			this.kind = kind;
+			this.values = values;
+			long weight = 16L * values.length;
+			for (String value : values) {
+				weight += value == null ? 0 : 2L * value.length();
+			}
+			this.weight = (int) Math.min(Integer.MAX_VALUE, weight);
+		}
+	}
+}
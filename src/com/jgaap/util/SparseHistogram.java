@@ -0,0 +1,387 @@
+package com.jgaap.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.jgaap.generics.EventDriver;
+
+/**
+ * An immutable Histogram stored as a sparse vector, a sorted array of keys
+ * with the relative frequency of each key in a parallel array.
+ * A key is the EventDictionary id of an event with the serial of its dictionary
+ * in the high 32 bits so the same event has the same key in every SparseHistogram.
+ *
+ * Two SparseHistograms can be compared by walking both key arrays in one
+ * linear merge without looking anything up or allocating, see
+ * DistanceFunction.distance(SparseHistogram, SparseHistogram).
+ *
+ * As with IndexedHistogram relative frequencies are taken against the number
+ * of events generated by the same EventDriver.
+ *
+ * Values derived from the frequencies alone (square roots, logarithms, sums)
+ * are computed the first time a distance asks for them and kept, see
+ * DistanceFunction.prepare.
+ *
+ * @since 8.0.3
+ */
+public class SparseHistogram implements Histogram {
+
+	/**
+	 * Events without an EventDriver (built by hand in tests for example) are keyed here
+	 */
+	private static final EventDictionary unowned = new EventDictionary(null);
+
+	private final long[] keys;
+	private final long[] hashes;
+	private final double[] frequencies;
+	private int[] counts;
+	private final Event[] events;
+	private Set<Event> uniqueEvents;
+
+	private volatile double[] squareRoots;
+	private volatile double[] logarithms;
+	private volatile int[] ranks;
+	/** the sum of the frequencies and the sum of their squares */
+	private volatile double[] sums;
+
+	private SparseHistogram(int size) {
+		keys = new long[size];
+		hashes = new long[size];
+		frequencies = new double[size];
+		counts = new int[size];
+		events = new Event[size];
+	}
+
+	public SparseHistogram(EventSet eventSet) {
+		this(new IndexedHistogram(eventSet));
+	}
+
+	public SparseHistogram(Iterable<EventSet> eventSets) {
+		this(new IndexedHistogram(eventSets));
+	}
+
+	public SparseHistogram(Document document) {
+		this(new IndexedHistogram(document));
+	}
+
+	public SparseHistogram(IndexedHistogram histogram) {
+		this(histogram.getNTypes());
+		IndexedHistogram.Table[] tables = histogram.getTables().clone();
+		EventDictionary[] dictionaries = new EventDictionary[tables.length];
+		for (int t = 0; t < tables.length; t++) {
+			dictionaries[t] = tables[t].dictionary.getEventDriver() == null ? unowned : tables[t].dictionary;
+		}
+		// order the tables by the serial of the dictionary their keys will come from
+		for (int t = 1; t < tables.length; t++) {
+			for (int s = t; s > 0 && dictionaries[s - 1].getSerial() > dictionaries[s].getSerial(); s--) {
+				IndexedHistogram.Table table = tables[s];
+				tables[s] = tables[s - 1];
+				tables[s - 1] = table;
+				EventDictionary dictionary = dictionaries[s];
+				dictionaries[s] = dictionaries[s - 1];
+				dictionaries[s - 1] = dictionary;
+			}
+		}
+		int size = 0;
+		for (int t = 0; t < tables.length; t++) {
+			IndexedHistogram.Table table = tables[t];
+			EventDictionary dictionary = dictionaries[t];
+			long[] entries = new long[table.types];
+			int n = 0;
+			for (int i = 0; i < table.keys.length; i++) {
+				if (table.keys[i] != 0) {
+					int id = table.keys[i] - 1;
+					if (dictionary != table.dictionary) {
+						id = dictionary.intern(table.dictionary.event(id));
+					}
+					entries[n++] = ((long) id << 32) | table.counts[i];
+				}
+			}
+			Arrays.sort(entries);
+			long serial = (long) dictionary.getSerial() << 32;
+			for (long entry : entries) {
+				int id = (int) (entry >>> 32);
+				int count = (int) entry;
+				keys[size] = serial | id;
+				hashes[size] = dictionary.hash(id);
+				counts[size] = count;
+				frequencies[size] = count / (double) table.tokens;
+				events[size] = dictionary.event(id);
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Returns histogram as a SparseHistogram, copying it if need be
+	 * @param histogram
+	 * @return a SparseHistogram with the same frequencies as histogram
+	 */
+	public static SparseHistogram of(Histogram histogram) {
+		if (histogram instanceof SparseHistogram) {
+			return (SparseHistogram) histogram;
+		}
+		if (histogram instanceof IndexedHistogram) {
+			return new SparseHistogram((IndexedHistogram) histogram);
+		}
+		Event[] events = histogram.uniqueEvents().toArray(new Event[0]);
+		for (Event event : events) {
+			dictionaryOf(event).intern(event);
+		}
+		Arrays.sort(events, new Comparator<Event>() {
+			@Override
+			public int compare(Event event1, Event event2) {
+				return Long.compare(key(event1), key(event2));
+			}
+		});
+		SparseHistogram sparseHistogram = new SparseHistogram(events.length);
+		for (int i = 0; i < events.length; i++) {
+			EventDictionary dictionary = dictionaryOf(events[i]);
+			int id = dictionary.id(events[i]);
+			sparseHistogram.keys[i] = ((long) dictionary.getSerial() << 32) | id;
+			sparseHistogram.hashes[i] = dictionary.hash(id);
+			sparseHistogram.frequencies[i] = histogram.relativeFrequency(events[i]);
+			sparseHistogram.events[i] = events[i];
+		}
+		try {
+			for (int i = 0; i < events.length; i++) {
+				sparseHistogram.counts[i] = histogram.absoluteFrequency(events[i]);
+			}
+		} catch (UnsupportedOperationException e) {
+			// EventMap and centroids only know relative frequencies
+			sparseHistogram.counts = null;
+		}
+		return sparseHistogram;
+	}
+
+	private static EventDictionary dictionaryOf(Event event) {
+		EventDriver eventDriver = event.getEventDriver();
+		return eventDriver == null ? unowned : eventDriver.getEventDictionary();
+	}
+
+	/**
+	 * @return the key of event or -1 if it has never been seen
+	 */
+	private static long key(Event event) {
+		EventDictionary dictionary = dictionaryOf(event);
+		int id = dictionary.id(event);
+		if (id < 0) {
+			return -1;
+		}
+		return ((long) dictionary.getSerial() << 32) | id;
+	}
+
+	private int indexOf(Event event) {
+		long key = key(event);
+		if (key < 0) {
+			return -1;
+		}
+		return Arrays.binarySearch(keys, key);
+	}
+
+	/**
+	 * @return the number of distinct events, the length of the key and frequency arrays
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * The sorted keys of this histogram. The array is shared and must not be modified.
+	 * @return the keys in ascending order
+	 */
+	public long[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * The EventDictionary hash of each event parallel to getKeys(), unlike the keys these are the
+	 * same in every run. The array is shared and must not be modified.
+	 * @return the hash of each key
+	 */
+	public long[] getHashes() {
+		return hashes;
+	}
+
+	/**
+	 * @param index a position in getKeys()
+	 * @return the event with that key
+	 */
+	public Event eventAt(int index) {
+		return events[index];
+	}
+
+	/**
+	 * The relative frequencies parallel to getKeys(). The array is shared and must not be modified.
+	 * @return the relative frequency of each key
+	 */
+	public double[] getFrequencies() {
+		return frequencies;
+	}
+
+	/**
+	 * The square root of each frequency parallel to getKeys(). The array is shared and must not be modified.
+	 * @return the square roots, computed on first use
+	 */
+	public double[] getSquareRoots() {
+		double[] result = squareRoots;
+		if (result == null) {
+			result = new double[frequencies.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = Math.sqrt(frequencies[i]);
+			}
+			squareRoots = result;
+		}
+		return result;
+	}
+
+	/**
+	 * The natural logarithm of each frequency parallel to getKeys(). The array is shared and must not be modified.
+	 * @return the logarithms, computed on first use
+	 */
+	public double[] getLogarithms() {
+		double[] result = logarithms;
+		if (result == null) {
+			result = new double[frequencies.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = Math.log(frequencies[i]);
+			}
+			logarithms = result;
+		}
+		return result;
+	}
+
+	/**
+	 * The rank of each frequency parallel to getKeys(), equal frequencies share a rank,
+	 * the least frequent events have rank 1 so 0 is left for events not in the histogram.
+	 * The array is shared and must not be modified.
+	 * @return the ranks, computed on first use
+	 */
+	public int[] getRanks() {
+		int[] result = ranks;
+		if (result == null) {
+			double[] sorted = frequencies.clone();
+			Arrays.sort(sorted);
+			int distinct = 0;
+			for (int i = 0; i < sorted.length; i++) {
+				if (i == 0 || sorted[i] != sorted[i - 1]) {
+					sorted[distinct++] = sorted[i];
+				}
+			}
+			result = new int[frequencies.length];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = Arrays.binarySearch(sorted, 0, distinct, frequencies[i]) + 1;
+			}
+			ranks = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the sum of the frequencies
+	 */
+	public double getSum() {
+		return sums()[0];
+	}
+
+	/**
+	 * @return the sum of the squared frequencies
+	 */
+	public double getSumOfSquares() {
+		return sums()[1];
+	}
+
+	private double[] sums() {
+		double[] result = sums;
+		if (result == null) {
+			result = new double[2];
+			for (double frequency : frequencies) {
+				result[0] += frequency;
+				result[1] += frequency * frequency;
+			}
+			sums = result;
+		}
+		return result;
+	}
+
+	@Override
+	public double relativeFrequency(Event event) {
+		int index = indexOf(event);
+		if (index < 0) {
+			return 0.0;
+		}
+		return frequencies[index];
+	}
+
+	@Override
+	public double normalizedFrequency(Event event) {
+		return relativeFrequency(event) * 100000;
+	}
+
+	@Override
+	public int absoluteFrequency(Event event) {
+		if (counts == null) {
+			throw new UnsupportedOperationException();
+		}
+		int index = indexOf(event);
+		if (index < 0) {
+			return 0;
+		}
+		return counts[index];
+	}
+
+	@Override
+	public boolean contains(Event event) {
+		return indexOf(event) >= 0;
+	}
+
+	/**
+	 * @return a read only view of the events in key order
+	 */
+	@Override
+	public Set<Event> uniqueEvents() {
+		if (uniqueEvents == null) {
+			uniqueEvents = new AbstractSet<Event>() {
+				@Override
+				public boolean contains(Object o) {
+					return o instanceof Event && SparseHistogram.this.contains((Event) o);
+				}
+
+				@Override
+				public int size() {
+					return events.length;
+				}
+
+				@Override
+				public Iterator<Event> iterator() {
+					return new Iterator<Event>() {
+						private int index = 0;
+
+						@Override
+						public boolean hasNext() {
+							return index < events.length;
+						}
+
+						@Override
+						public Event next() {
+							if (index >= events.length) {
+								throw new NoSuchElementException();
+							}
+							return events[index++];
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
+		return uniqueEvents;
+	}
+}
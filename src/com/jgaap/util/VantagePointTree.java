@@ -0,0 +1,138 @@
+package com.jgaap.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.DistanceFunction;
+
+/**
+ * A vantage point tree over SparseHistograms for exact k nearest neighbor search.
+ * Each node picks a vantage point and splits the remaining points at the
+ * median distance from it, a query then skips every subtree the triangle
+ * inequality says can not hold anything nearer than its current k-th nearest.
+ *
+ * Only correct for distances where DistanceFunction.isMetric() is true.
+ *
+ * @since 8.0.3
+ */
+public class VantagePointTree {
+
+	/**
+	 * Pruning decisions are widened by this fraction to allow for rounding in the distances
+	 */
+	private static final double SLACK = 1e-9;
+
+	private final List<SparseHistogram> points;
+	private final DistanceFunction distance;
+	/** the points in tree order, a node is a range whose first element is its vantage point */
+	private final int[] order;
+	/** the median distance from the vantage point starting at each position */
+	private final double[] radius;
+
+	/**
+	 * @param points
+	 * @param distance a metric distance
+	 * @throws DistanceCalculationException
+	 */
+	public VantagePointTree(List<SparseHistogram> points, DistanceFunction distance) throws DistanceCalculationException {
+		if (!distance.isMetric()) {
+			throw new IllegalArgumentException(distance.displayName() + " is not a metric");
+		}
+		this.points = points;
+		this.distance = distance;
+		this.order = new int[points.size()];
+		this.radius = new double[points.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		build(0, order.length, new double[order.length], new Random(order.length));
+	}
+
+	private void build(int from, int to, final double[] distances, Random random) throws DistanceCalculationException {
+		if (to - from < 2) {
+			return;
+		}
+		swap(from, from + random.nextInt(to - from));
+		SparseHistogram vantagePoint = points.get(order[from]);
+		Integer[] others = new Integer[to - from - 1];
+		for (int i = from + 1; i < to; i++) {
+			distances[order[i]] = distance.distance(vantagePoint, points.get(order[i]));
+			others[i - from - 1] = order[i];
+		}
+		Arrays.sort(others, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer point1, Integer point2) {
+				return Double.compare(distances[point1], distances[point2]);
+			}
+		});
+		for (int i = 0; i < others.length; i++) {
+			order[from + 1 + i] = others[i];
+		}
+		int middle = from + 1 + others.length / 2;
+		radius[from] = distances[order[middle]];
+		build(from + 1, middle, distances, random);
+		build(middle, to, distances, random);
+	}
+
+	private void swap(int i, int j) {
+		int point = order[i];
+		order[i] = order[j];
+		order[j] = point;
+	}
+
+	/**
+	 * @return the number of points in the tree
+	 */
+	public int size() {
+		return order.length;
+	}
+
+	/**
+	 * Finds the k points nearest to query
+	 * @param query
+	 * @param k
+	 * @param excluded points (by index) that may not be returned, or null
+	 * @return the indices of the nearest points with their distances
+	 * @throws DistanceCalculationException
+	 */
+	public NearestNeighbors nearest(SparseHistogram query, int k, boolean[] excluded) throws DistanceCalculationException {
+		NearestNeighbors nearest = new NearestNeighbors(k);
+		search(query, 0, order.length, excluded, nearest);
+		return nearest;
+	}
+
+	private void search(SparseHistogram query, int from, int to, boolean[] excluded, NearestNeighbors nearest) throws DistanceCalculationException {
+		if (from >= to) {
+			return;
+		}
+		int point = order[from];
+		double current = distance.distance(query, points.get(point));
+		if (excluded == null || !excluded[point]) {
+			nearest.offer(point, current);
+		}
+		if (to - from == 1) {
+			return;
+		}
+		int middle = from + 1 + (to - from - 1) / 2;
+		double median = radius[from];
+		double slack = SLACK * (Math.abs(current) + Math.abs(median));
+		if (current < median) {
+			if (current - nearest.bound() <= median + slack) {
+				search(query, from + 1, middle, excluded, nearest);
+			}
+			if (current + nearest.bound() >= median - slack) {
+				search(query, middle, to, excluded, nearest);
+			}
+		} else {
+			if (current + nearest.bound() >= median - slack) {
+				search(query, middle, to, excluded, nearest);
+			}
+			if (current - nearest.bound() <= median + slack) {
+				search(query, from + 1, middle, excluded, nearest);
+			}
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package com.jgaap.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The one fork join pool every stage of JGAAP runs its work on, so that
+ * experiments running side by side share threads instead of each bringing
+ * their own pools.
+ *
+ * The parallelism is read from the jgaap.parallelism system property
+ * (default availableProcessors()). Setting jgaap.virtualThreads to true
+ * loads documents on virtual threads when the JVM has them, since loading
+ * mostly waits on disk or network; otherwise loading shares the pool too.
+ *
+ * Code running on the pool that has to wait for other work on the pool
+ * should wait through take so the pool can add a thread while it is blocked.
+ *
+ * @since 8.0.3
+ */
+public class WorkPool {
+
+	private static final Logger logger = Logger.getLogger(WorkPool.class);
+
+	public static final String PARALLELISM_PROPERTY = "jgaap.parallelism";
+	public static final String VIRTUAL_THREADS_PROPERTY = "jgaap.virtualThreads";
+
+	private static WorkPool shared;
+
+	private final ForkJoinPool pool;
+	private final ExecutorService loadingExecutor;
+
+	/**
+	 * @param parallelism the number of threads kept busy
+	 * @param virtualThreads load documents on virtual threads if the JVM supports them
+	 */
+	public WorkPool(int parallelism, boolean virtualThreads) {
+		pool = new ForkJoinPool(parallelism);
+		ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+		loadingExecutor = virtualExecutor == null ? pool : virtualExecutor;
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor only exists from Java 21 on
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Exception e) {
+			logger.info("Virtual threads are not available, documents will be loaded on the shared pool");
+			return null;
+		}
+	}
+
+	/**
+	 * @return the pool shared by every API in this JVM, created from the system properties on first use
+	 */
+	public static synchronized WorkPool getShared() {
+		if (shared == null) {
+			int parallelism = Runtime.getRuntime().availableProcessors();
+			try {
+				parallelism = Integer.parseInt(System.getProperty(PARALLELISM_PROPERTY, Integer.toString(parallelism)));
+			} catch (NumberFormatException e) {
+				logger.warn("Ignoring " + PARALLELISM_PROPERTY + "=" + System.getProperty(PARALLELISM_PROPERTY));
+			}
+			shared = new WorkPool(Math.max(1, parallelism), Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY));
+		}
+		return shared;
+	}
+
+	/**
+	 * Replaces the shared pool, work already submitted to the old one still finishes
+	 * @param parallelism
+	 * @param virtualThreads
+	 */
+	public static synchronized void configure(int parallelism, boolean virtualThreads) {
+		WorkPool old = shared;
+		shared = new WorkPool(Math.max(1, parallelism), virtualThreads);
+		if (old != null) {
+			old.shutdown();
+		}
+	}
+
+	/**
+	 * @return the fork join pool for computation
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return where documents are loaded, the pool itself unless virtual threads are in use
+	 */
+	public ExecutorService getLoadingExecutor() {
+		return loadingExecutor;
+	}
+
+	/**
+	 * @return the number of threads kept busy
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * @return the tasks waiting in the workers' own queues
+	 */
+	public long getQueuedTaskCount() {
+		return pool.getQueuedTaskCount();
+	}
+
+	/**
+	 * @return the tasks submitted from outside the pool not yet picked up
+	 */
+	public int getQueuedSubmissionCount() {
+		return pool.getQueuedSubmissionCount();
+	}
+
+	/**
+	 * @return the tasks one worker has taken from another's queue so far
+	 */
+	public long getStealCount() {
+		return pool.getStealCount();
+	}
+
+	/**
+	 * @return the threads currently running tasks
+	 */
+	public int getActiveThreadCount() {
+		return pool.getActiveThreadCount();
+	}
+
+	/**
+	 * @return the threads started, more than the parallelism while some are blocked
+	 */
+	public int getPoolSize() {
+		return pool.getPoolSize();
+	}
+
+	/**
+	 * Runs task where documents are loaded, on the calling thread when that is the pool itself
+	 * @param task
+	 * @return the result of task
+	 * @throws Exception whatever task throws
+	 */
+	public <T> T load(Callable<T> task) throws Exception {
+		if (loadingExecutor == pool) {
+			return task.call();
+		}
+		try {
+			return get(loadingExecutor.submit(task));
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for future without starving the pool when called from one of its threads
+	 * @param future
+	 * @return the result of future
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 */
+	public static <T> T get(final Future<T> future) throws InterruptedException, ExecutionException {
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+			@Override
+			public boolean block() throws InterruptedException {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// rethrown by the get below
+				}
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return future.isDone();
+			}
+		});
+		return future.get();
+	}
+
+	/**
+	 * Waits for the next completed task without starving the pool when called from one of its threads
+	 * @param completionService
+	 * @return the next completed task
+	 * @throws InterruptedException
+	 */
+	public static <T> Future<T> take(final CompletionService<T> completionService) throws InterruptedException {
+		TakeBlocker<T> blocker = new TakeBlocker<T>(completionService);
+		ForkJoinPool.managedBlock(blocker);
+		return blocker.result;
+	}
+
+	private static class TakeBlocker<T> implements ForkJoinPool.ManagedBlocker {
+
+		private final CompletionService<T> completionService;
+		private Future<T> result;
+
+		TakeBlocker(CompletionService<T> completionService) {
+			this.completionService = completionService;
+		}
+
+		@Override
+		public boolean block() throws InterruptedException {
+			if (result == null) {
+				result = completionService.take();
+			}
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable() {
+			if (result == null) {
+				result = completionService.poll();
+			}
+			return result != null;
+		}
+	}
+
+	private void shutdown() {
+		pool.shutdown();
+		if (loadingExecutor != pool) {
+			loadingExecutor.shutdown();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "parallelism " + getParallelism() + ", threads " + getPoolSize() + ", active " + getActiveThreadCount()
+				+ ", queued tasks " + getQueuedTaskCount() + ", queued submissions " + getQueuedSubmissionCount()
+				+ ", steals " + getStealCount();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.jgaap.distances.CosineDistance;
+import com.jgaap.generics.AnalyzeException;
+import com.jgaap.generics.ValidationDriver;
+import com.jgaap.util.Document;
+import com.jgaap.util.Pair;
+
+/**
+ * A ValidationDriver that can not leave a document out of its model is trained once per known
+ */
+public class APITest {
+
+	/**
+	 * Ranks the titles of the documents it was trained on
+	 */
+	public static class TitleValidationDriver extends ValidationDriver {
+
+		private List<Document> knownDocuments;
+
+		@Override
+		public String displayName() {
+			return "Title Validation";
+		}
+
+		@Override
+		public String tooltipText() {
+			return "";
+		}
+
+		@Override
+		public void train(List<Document> knownDocuments) {
+			this.knownDocuments = knownDocuments;
+		}
+
+		@Override
+		public List<Pair<String, Double>> analyze(Document unknownDocument) throws AnalyzeException {
+			List<Pair<String, Double>> results = new ArrayList<Pair<String, Double>>();
+			for (Document knownDocument : knownDocuments) {
+				results.add(new Pair<String, Double>(knownDocument.getTitle(), 0.0, 2));
+			}
+			return results;
+		}
+	}
+
+	@Test
+	public void testValidationDriverWithoutLeaveOneOut() throws Exception {
+		API api = API.getPrivateInstance();
+		String[] texts = { "the quick brown fox", "jumps over the lazy dog", "a fox and a dog", "the dog sleeps" };
+		for (int i = 0; i < texts.length; i++) {
+			Document document = new Document("", i % 2 == 0 ? "A" : "B", "doc" + i);
+			document.setDocType(Document.Type.DATABASE);
+			document.setText(texts[i]);
+			api.addDocument(document);
+		}
+		api.addEventDriver("Words");
+		TitleValidationDriver driver = new TitleValidationDriver();
+		driver.setDistance(new CosineDistance());
+		api.addAnalysisDriver(driver);
+		api.execute();
+
+		for (Document known : api.getKnownDocuments()) {
+			Set<String> titles = new HashSet<String>();
+			for (Pair<String, Double> result : known.getRawResult(driver)) {
+				titles.add(result.getFirst());
+			}
+			assertEquals(texts.length - 1, titles.size());
+			assertFalse(titles.contains(known.getTitle()));
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jgaap.classifiers.KNearestNeighborDriver;
+import com.jgaap.classifiers.LeaveOneOutNoDistanceDriver;
+import com.jgaap.distances.CosineDistance;
+import com.jgaap.generics.AnalysisDriver;
+
+/**
+ * Copies of a driver for parallel folds share its settings but nothing trained
+ */
+public class AnalysisDriversTest {
+
+	@Test
+	public void testCopy() throws Exception {
+		KNearestNeighborDriver nearest = new KNearestNeighborDriver();
+		nearest.setParameter("k", 3);
+		CosineDistance cosine = new CosineDistance();
+		nearest.setDistance(cosine);
+		LeaveOneOutNoDistanceDriver leaveOneOut = new LeaveOneOutNoDistanceDriver();
+		leaveOneOut.setAnalysisDriver(nearest);
+
+		AnalysisDriver copy = AnalysisDrivers.copy(leaveOneOut);
+		assertTrue(copy instanceof LeaveOneOutNoDistanceDriver);
+		assertFalse(copy == leaveOneOut);
+		AnalysisDriver dependency = ((LeaveOneOutNoDistanceDriver) copy).analysisDriver;
+		assertTrue(dependency instanceof KNearestNeighborDriver);
+		assertFalse(dependency == nearest);
+		assertSame(cosine, ((KNearestNeighborDriver) dependency).getDistanceFunction());
+		assertEquals(3, dependency.getParameter("k", 0));
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.jgaap.util.Document;
+import com.jgaap.util.Pair;
+
+/**
+ * Folds keep the authors' proportions and the report counts what it is told
+ */
+public class CrossValidationTest {
+
+	@Test
+	public void testStratify() {
+		List<Document> knowns = new ArrayList<Document>();
+		for (int i = 0; i < 6; i++) {
+			knowns.add(new Document("a" + i, "A", "a" + i));
+		}
+		for (int i = 0; i < 3; i++) {
+			knowns.add(new Document("b" + i, "B", "b" + i));
+		}
+		List<List<Document>> folds = CrossValidation.stratify(knowns, 3, new Random(0));
+		assertEquals(3, folds.size());
+		Set<Document> seen = new HashSet<Document>();
+		for (List<Document> fold : folds) {
+			int a = 0;
+			int b = 0;
+			for (Document document : fold) {
+				assertTrue(seen.add(document));
+				if (document.getAuthor().equals("A")) {
+					a++;
+				} else {
+					b++;
+				}
+			}
+			assertEquals(2, a);
+			assertEquals(1, b);
+		}
+		assertEquals(knowns.size(), seen.size());
+		List<List<Document>> again = CrossValidation.stratify(knowns, 3, new Random(0));
+		assertEquals(folds.toString(), again.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyFolds() {
+		List<Document> knowns = Arrays.asList(new Document("a", "A", "a"), new Document("b", "B", "b"));
+		CrossValidation.stratify(knowns, 3, new Random(0));
+	}
+
+	@Test
+	public void testPredictedAuthor() {
+		List<String> authors = Arrays.asList("A", "AB");
+		List<Pair<String, Double>> results = new ArrayList<Pair<String, Double>>();
+		results.add(new Pair<String, Double>("AB -/path/ab1.txt", 0.1));
+		results.add(new Pair<String, Double>("A -/path/a1.txt", 0.2));
+		assertEquals("AB", CrossValidation.predictedAuthor(results, authors));
+		results.add(0, new Pair<String, Double>("A", 0.0));
+		assertEquals("A", CrossValidation.predictedAuthor(results, authors));
+		assertEquals(null, CrossValidation.predictedAuthor(new ArrayList<Pair<String, Double>>(), authors));
+	}
+
+	@Test
+	public void testRecord() {
+		CrossValidation crossValidation = new CrossValidation("Test", 2);
+		crossValidation.record(0, "A", "A");
+		crossValidation.record(0, "B", "A");
+		crossValidation.record(1, "A", "A");
+		crossValidation.record(1, "B", null);
+		assertEquals(0.5, crossValidation.getAccuracy(0), 0.0);
+		assertEquals(0.5, crossValidation.getAccuracy(1), 0.0);
+		assertEquals(0.5, crossValidation.getAccuracy(), 0.0);
+		assertEquals(2, crossValidation.getConfusion("A", "A"));
+		assertEquals(1, crossValidation.getConfusion("B", "A"));
+		assertEquals(1, crossValidation.getConfusion("B", ""));
+		assertEquals(0, crossValidation.getConfusion("B", "B"));
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Rows recorded as finished are found again by a resumed run only
+ */
+public class ExperimentJournalTest {
+
+	@Test
+	public void testResume() throws Exception {
+		File file = File.createTempFile("experiment", ".journal");
+		File result = File.createTempFile("experiment", ".txt");
+		File missing = new File(result.getPath() + ".missing");
+		try {
+			String finished = ExperimentJournal.hash("name", "1", "", "Words", "Nearest Neighbor Driver", "Cosine Distance", "docs.csv");
+			String removed = ExperimentJournal.hash("name", "2", "", "Words", "Nearest Neighbor Driver", "Cosine Distance", "docs.csv");
+			assertFalse(finished.equals(removed));
+			assertFalse(ExperimentJournal.hash("a", "bc").equals(ExperimentJournal.hash("ab", "c")));
+
+			ExperimentJournal journal = new ExperimentJournal(file, false);
+			journal.complete(finished, result.getPath());
+			journal.complete(removed, missing.getPath());
+			assertEquals(result.getPath(), journal.getCompleted(finished));
+			journal.close();
+			// a crash in the middle of a line
+			FileOutputStream out = new FileOutputStream(file, true);
+			out.write("0123".getBytes(StandardCharsets.UTF_8));
+			out.close();
+
+			journal = new ExperimentJournal(file, true);
+			assertEquals(result.getPath(), journal.getCompleted(finished));
+			assertNull(journal.getCompleted(removed));
+			journal.close();
+
+			journal = new ExperimentJournal(file, false);
+			assertNull(journal.getCompleted(finished));
+			journal.close();
+		} finally {
+			file.delete();
+			result.delete();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.classifiers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.jgaap.distances.CosineDistance;
+import com.jgaap.generics.AnalyzeException;
+import com.jgaap.util.Document;
+import com.jgaap.util.Event;
+import com.jgaap.util.EventSet;
+import com.jgaap.util.Pair;
+
+/**
+ * Leaving a document out of a trained CentroidDriver must rank like training without it
+ */
+public class CentroidDriverTest {
+
+	@Test
+	public void testAnalyzeLeftOut() throws AnalyzeException {
+		String[][] texts = { { "Mary", "had", "a", "little", "lamb" }, { "Peter", "piper", "picked", "a", "peck" },
+				{ "Mary", "had", "a", "little", "lambda" }, { "Peter", "piper", "picked", "a", "lamb" },
+				{ "Jack", "and", "Jill", "went", "up" } };
+		String[] authors = { "Mary", "Peter", "Mary", "Peter", "Jack" };
+		List<Document> knowns = new ArrayList<Document>();
+		for (int i = 0; i < texts.length; i++) {
+			EventSet eventSet = new EventSet();
+			for (String event : texts[i]) {
+				eventSet.addEvent(new Event(event, null));
+			}
+			Document document = new Document();
+			document.setAuthor(authors[i]);
+			document.setTitle("known" + i);
+			document.addEventSet(null, eventSet);
+			knowns.add(document);
+		}
+		CentroidDriver centroid = new CentroidDriver();
+		centroid.setDistance(new CosineDistance());
+		centroid.train(knowns);
+		for (Document known : knowns) {
+			List<Pair<String, Double>> leftOut = centroid.analyzeLeftOut(known);
+			List<Document> others = new ArrayList<Document>(knowns);
+			others.remove(known);
+			CentroidDriver retrained = new CentroidDriver();
+			retrained.setDistance(new CosineDistance());
+			retrained.train(others);
+			List<Pair<String, Double>> expected = retrained.analyze(known);
+			assertEquals(expected.size(), leftOut.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).getFirst(), leftOut.get(i).getFirst());
+				assertEquals(expected.get(i).getSecond(), leftOut.get(i).getSecond(), 1e-12);
+			}
+		}
+	}
+}
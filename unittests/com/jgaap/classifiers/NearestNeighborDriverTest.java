@@ -121,4 +121,40 @@ public class NearestNeighborDriverTest {
 
 	}
 
+	@Test
+	public void testAnalyzeLeftOut() throws AnalyzeException {
+		String[][] texts = { { "Mary", "had", "a", "little", "lamb" }, { "Peter", "piper", "picked", "a", "peck" },
+				{ "Mary", "had", "a", "little", "lambda" }, { "Peter", "piper", "picked", "a", "lamb" } };
+		String[] authors = { "Mary", "Peter", "Mary", "Peter" };
+		List<Document> knowns = new ArrayList<Document>();
+		for (int i = 0; i < texts.length; i++) {
+			EventSet eventSet = new EventSet();
+			for (String event : texts[i]) {
+				eventSet.addEvent(new Event(event, null));
+			}
+			Document document = new Document();
+			document.setAuthor(authors[i]);
+			document.setTitle("known" + i);
+			document.addEventSet(null, eventSet);
+			knowns.add(document);
+		}
+		NearestNeighborDriver nearest = new NearestNeighborDriver();
+		nearest.setDistance(new CosineDistance());
+		nearest.train(knowns);
+		for (Document known : knowns) {
+			List<Pair<String, Double>> leftOut = nearest.analyzeLeftOut(known);
+			List<Document> others = new ArrayList<Document>(knowns);
+			others.remove(known);
+			NearestNeighborDriver retrained = new NearestNeighborDriver();
+			retrained.setDistance(new CosineDistance());
+			retrained.train(others);
+			List<Pair<String, Double>> expected = retrained.analyze(known);
+			assertEquals(expected.size(), leftOut.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).getFirst(), leftOut.get(i).getFirst());
+				assertEquals(expected.get(i).getSecond(), leftOut.get(i).getSecond(), 1e-12);
+			}
+		}
+	}
+
 }
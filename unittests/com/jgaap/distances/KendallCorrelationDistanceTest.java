@@ -22,6 +22,13 @@ package com.jgaap.distances;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Vector;
 
 import org.junit.Test;
@@ -29,6 +36,8 @@ import org.junit.Test;
 import com.jgaap.util.Event;
 import com.jgaap.util.EventMap;
 import com.jgaap.util.EventSet;
+import com.jgaap.util.Histogram;
+import com.jgaap.util.SparseHistogram;
 
 /**
  * @author michael
@@ -126,4 +135,154 @@ public class KendallCorrelationDistanceTest {
 		assertTrue(DistanceTestHelper.inRange(result, 2.0, 0.0000000001));
 	}
 
+	/**
+	 * The rank based distance must match comparing every ordered pair of events directly
+	 */
+	@Test
+	public void testPairwise() {
+		Random random = new Random(3);
+		for (int trial = 0; trial < 20; trial++) {
+			EventSet es1 = new EventSet();
+			EventSet es2 = new EventSet();
+			for (int i = 0; i < 200; i++) {
+				es1.addEvent(new Event("e" + random.nextInt(40), null));
+				es2.addEvent(new Event("e" + random.nextInt(30 + trial), null));
+			}
+			EventMap h1 = new EventMap(es1);
+			EventMap h2 = new EventMap(es2);
+			List<Event> events = new ArrayList<Event>(h1.uniqueEvents());
+			for (Event event : h2.uniqueEvents()) {
+				if (!h1.contains(event)) {
+					events.add(event);
+				}
+			}
+			double correlation = 0.0;
+			for (Event e1 : events) {
+				for (Event e2 : events) {
+					correlation += Math.signum(h1.relativeFrequency(e1) - h1.relativeFrequency(e2))
+							* Math.signum(h2.relativeFrequency(e1) - h2.relativeFrequency(e2));
+				}
+			}
+			double expected = 1.0 - correlation / (h1.uniqueEvents().size() * (h2.uniqueEvents().size() - 1));
+			KendallCorrelationDistance distance = new KendallCorrelationDistance();
+			assertEquals(expected, distance.distance(h1, h2), 1e-12);
+			assertEquals(expected, distance.distance(new SparseHistogram(es1), distance.prepare(h2)), 1e-12);
+		}
+	}
+
+	/**
+	 * Ranks as the pairwise loop did: most frequent first, equal frequencies share the
+	 * position of the first of them. Like that loop it does not reset the last frequency
+	 * seen between histograms, so the first events can get rank 0.
+	 */
+	private static Map<Event, Integer> legacyRanks(final Histogram histogram, double[] oldfreq) {
+		List<Event> events = new ArrayList<Event>(histogram.uniqueEvents());
+		Collections.sort(events, new Comparator<Event>() {
+			@Override
+			public int compare(Event e1, Event e2) {
+				return Double.compare(histogram.relativeFrequency(e2), histogram.relativeFrequency(e1));
+			}
+		});
+		Map<Event, Integer> ranks = new HashMap<Event, Integer>();
+		int rank = 0;
+		int count = 0;
+		for (Event event : events) {
+			double frequency = histogram.relativeFrequency(event);
+			count++;
+			if (frequency != oldfreq[0]) {
+				rank = count;
+				oldfreq[0] = frequency;
+			}
+			ranks.put(event, rank);
+		}
+		return ranks;
+	}
+
+	/**
+	 * The pairwise loop the rank merge replaced, over every ordered pair of distinct events
+	 * with a missing event ranked one past the size of its histogram
+	 */
+	private static double legacyDistance(Histogram h1, Histogram h2) {
+		double[] oldfreq = { Double.POSITIVE_INFINITY };
+		Map<Event, Integer> hm1 = legacyRanks(h1, oldfreq);
+		Map<Event, Integer> hm2 = legacyRanks(h2, oldfreq);
+		List<Event> events = new ArrayList<Event>(h1.uniqueEvents());
+		for (Event event : h2.uniqueEvents()) {
+			if (!hm1.containsKey(event)) {
+				events.add(event);
+			}
+		}
+		double correlation = 0.0;
+		for (Event e1 : events) {
+			for (Event e2 : events) {
+				if (e1.equals(e2)) continue;
+				int x1 = hm1.containsKey(e1) ? hm1.get(e1) : hm1.size() + 1;
+				int x2 = hm2.containsKey(e1) ? hm2.get(e1) : hm2.size() + 1;
+				int y1 = hm1.containsKey(e2) ? hm1.get(e2) : hm1.size() + 1;
+				int y2 = hm2.containsKey(e2) ? hm2.get(e2) : hm2.size() + 1;
+				correlation += Integer.signum(Integer.compare(x1, y1)) * Integer.signum(Integer.compare(x2, y2));
+			}
+		}
+		correlation /= (hm1.size() * (hm2.size() - 1));
+		return 1.0 - correlation;
+	}
+
+	private static EventSet eventSet(String... events) {
+		EventSet eventSet = new EventSet();
+		for (String event : events) {
+			eventSet.addEvent(new Event(event, null));
+		}
+		return eventSet;
+	}
+
+	/**
+	 * The known histogram's top frequency equals the unknown's lowest, so the pairwise loop
+	 * ranked the known's first events 0 rather than 1. Both are below every other rank, so
+	 * the distance is the same either way.
+	 */
+	@Test
+	public void testCarriedOverFrequency() {
+		EventMap unknown = new EventMap(eventSet("A", "A", "B"));
+		EventMap known = new EventMap(eventSet("C", "C", "D", "D", "E", "F"));
+		KendallCorrelationDistance distance = new KendallCorrelationDistance();
+		assertEquals(11.0 / 3.0, legacyDistance(unknown, known), 1e-12);
+		assertEquals(11.0 / 3.0, distance.distance(unknown, known), 1e-12);
+		assertEquals(11.0 / 3.0, distance.distance(SparseHistogram.of(unknown), distance.prepare(known)), 1e-12);
+	}
+
+	/**
+	 * The rank merge must match the pairwise loop on histograms full of ties, with events
+	 * found in only one of them and with histograms of different sizes
+	 */
+	@Test
+	public void testLegacyPairwise() {
+		Random random = new Random(11);
+		KendallCorrelationDistance distance = new KendallCorrelationDistance();
+		for (int trial = 0; trial < 50; trial++) {
+			EventSet es1 = new EventSet();
+			EventSet es2 = new EventSet();
+			int types = 2 + random.nextInt(30);
+			for (int type = 0; type < types; type++) {
+				// a few counts only, so many events tie, and some events on one side only
+				int side = random.nextInt(4);
+				int count1 = side == 1 ? 0 : 1 + random.nextInt(3);
+				int count2 = side == 2 ? 0 : 1 + random.nextInt(3);
+				for (int i = 0; i < count1; i++) {
+					es1.addEvent(new Event("e" + type, null));
+				}
+				for (int i = 0; i < count2; i++) {
+					es2.addEvent(new Event("e" + type, null));
+				}
+			}
+			EventMap h1 = new EventMap(es1);
+			EventMap h2 = new EventMap(es2);
+			if (h1.uniqueEvents().isEmpty() || h2.uniqueEvents().size() < 2) {
+				continue;
+			}
+			double expected = legacyDistance(h1, h2);
+			assertEquals(expected, distance.distance(h1, h2), 1e-12);
+			assertEquals(expected, distance.distance(new SparseHistogram(es1), distance.prepare(h2)), 1e-12);
+		}
+	}
+
 }
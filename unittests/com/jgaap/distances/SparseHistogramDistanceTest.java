@@ -0,0 +1,122 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.distances;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.eventDrivers.NaiveWordEventDriver;
+import com.jgaap.generics.DistanceCalculationException;
+import com.jgaap.generics.DistanceFunction;
+import com.jgaap.generics.EventDriver;
+import com.jgaap.generics.EventGenerationException;
+import com.jgaap.util.Event;
+import com.jgaap.util.EventMap;
+import com.jgaap.util.EventSet;
+import com.jgaap.util.SparseHistogram;
+
+/**
+ * The merge join distance(SparseHistogram, SparseHistogram) must agree with distance(Histogram, Histogram)
+ */
+public class SparseHistogramDistanceTest {
+
+	private static final DistanceFunction[] distances = { new AltIntersectionDistance(), new AngularSeparationDistance(),
+			new BhattacharyyaDistance(), new BrayCurtisDistance(), new CanberraDistance(), new ChiSquareDistance(),
+			new ChordDistance(), new CosineDistance(), new HellingerDistance(), new HistogramDistance(),
+			new HistogramIntersectionDistance(), new IntersectionDistance(), new KeseljWeightedDistance(),
+			new ManhattanDistance(), new MatusitaDistance(), new NominalKSDistance(), new PearsonCorrelationDistance(),
+			new SoergleDistance(), new StamatatosDistance(), new WEDDivergence(), new WaveHedgesDistance(),
+			new KullbackLeiblerDivergence(), new CrossEntropyDivergence() };
+
+	private static char[] text(Random random, int length) {
+		char[] text = new char[length];
+		for (int i = 0; i < length; i++) {
+			text[i] = random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(random.nextBoolean() ? 6 : 26));
+		}
+		return text;
+	}
+
+	@Test
+	public void testDistance() throws EventGenerationException, DistanceCalculationException {
+		Random random = new Random(42);
+		EventDriver[] eventDrivers = { new CharacterEventDriver(), new NaiveWordEventDriver() };
+		for (EventDriver eventDriver : eventDrivers) {
+			EventSet unknown = eventDriver.createEventSet(text(random, 2000));
+			EventSet known = eventDriver.createEventSet(text(random, 3000));
+			EventMap unknownMap = new EventMap(unknown);
+			EventMap knownMap = new EventMap(known);
+			SparseHistogram unknownHistogram = new SparseHistogram(unknown);
+			SparseHistogram knownHistogram = new SparseHistogram(known);
+			for (DistanceFunction distance : distances) {
+				double expected = distance.distance(unknownMap, knownMap);
+				assertEquals(distance.displayName(), expected, distance.distance(unknownHistogram, knownHistogram), Math.abs(expected) * 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testPrepare() throws EventGenerationException, DistanceCalculationException {
+		Random random = new Random(7);
+		EventDriver eventDriver = new CharacterEventDriver();
+		EventSet unknown = eventDriver.createEventSet(text(random, 1000));
+		EventSet known = eventDriver.createEventSet(text(random, 1500));
+		EventMap knownMap = new EventMap(known);
+		SparseHistogram unknownHistogram = new SparseHistogram(unknown);
+		SparseHistogram knownHistogram = new SparseHistogram(known);
+		KullbackLeiblerDivergence average = new KullbackLeiblerDivergence();
+		average.setParameter("divergenceType", "AVERAGE");
+		DistanceFunction[] prepared = { new CosineDistance(), new PearsonCorrelationDistance(), new HellingerDistance(),
+				new BhattacharyyaDistance(), new CrossEntropyDivergence(), average };
+		for (DistanceFunction distance : prepared) {
+			assertSame(knownHistogram, distance.prepare(knownHistogram));
+			double expected = distance.distance(new EventMap(unknown), knownMap);
+			assertEquals(distance.displayName(), expected, distance.distance(unknownHistogram, distance.prepare(knownMap)), Math.abs(expected) * 1e-9);
+		}
+		double[] frequencies = knownHistogram.getFrequencies();
+		double sum = 0.0;
+		for (int i = 0; i < frequencies.length; i++) {
+			assertEquals(Math.sqrt(frequencies[i]), knownHistogram.getSquareRoots()[i], 0.0);
+			assertEquals(Math.log(frequencies[i]), knownHistogram.getLogarithms()[i], 0.0);
+			sum += frequencies[i];
+		}
+		assertEquals(sum, knownHistogram.getSum(), 1e-12);
+		assertSame(knownHistogram.getSquareRoots(), knownHistogram.getSquareRoots());
+	}
+
+	@Test
+	public void testOf() {
+		EventSet eventSet = new EventSet();
+		eventSet.addEvent(new Event("b", null));
+		eventSet.addEvent(new Event("a", null));
+		eventSet.addEvent(new Event("b", null));
+		EventMap eventMap = new EventMap(eventSet);
+		SparseHistogram histogram = SparseHistogram.of(eventMap);
+		assertEquals(2, histogram.size());
+		assertEquals(eventMap.uniqueEvents(), histogram.uniqueEvents());
+		assertEquals(2.0 / 3.0, histogram.relativeFrequency(new Event("b", null)), 0.0);
+		assertEquals(0.0, histogram.relativeFrequency(new Event("c", null)), 0.0);
+		SparseHistogram counted = new SparseHistogram(eventSet);
+		assertEquals(counted.uniqueEvents(), histogram.uniqueEvents());
+		assertEquals(1, counted.absoluteFrequency(new Event("a", null)));
+	}
+}
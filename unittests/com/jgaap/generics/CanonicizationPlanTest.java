@@ -0,0 +1,101 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.jgaap.canonicizers.NormalizeWhitespace;
+import com.jgaap.canonicizers.StripPunctuation;
+import com.jgaap.canonicizers.UnifyCase;
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.eventDrivers.NaiveWordEventDriver;
+import com.jgaap.util.CanonicizationPlan;
+
+/**
+ * Shared chain prefixes run once and every EventDriver still gets the text its own chain makes
+ */
+public class CanonicizationPlanTest {
+
+	private static char[] canonicize(EventDriver eventDriver, String text) throws CanonicizationException {
+		char[] result = text.toCharArray();
+		for (Canonicizer canonicizer : eventDriver.getCanonicizers()) {
+			result = canonicizer.process(result);
+		}
+		return result;
+	}
+
+	@Test
+	public void testApply() throws CanonicizationException {
+		String text = "The  Quick, brown\tFox!";
+		List<EventDriver> eventDrivers = new ArrayList<EventDriver>();
+		EventDriver plain = new CharacterEventDriver();
+		eventDrivers.add(plain);
+		for (int i = 0; i < 3; i++) {
+			EventDriver eventDriver = new NaiveWordEventDriver();
+			eventDriver.addCanonicizer(new UnifyCase());
+			eventDriver.addCanonicizer(new NormalizeWhitespace());
+			if (i == 2) {
+				eventDriver.addCanonicizer(new StripPunctuation());
+			}
+			eventDrivers.add(eventDriver);
+		}
+		EventDriver other = new CharacterEventDriver();
+		other.addCanonicizer(new NormalizeWhitespace());
+		eventDrivers.add(other);
+
+		CanonicizationPlan plan = new CanonicizationPlan(eventDrivers);
+		assertEquals(4, plan.getStepCount());
+		Map<EventDriver, char[]> texts = plan.apply(text.toCharArray());
+		assertEquals(eventDrivers, new ArrayList<EventDriver>(texts.keySet()));
+		for (EventDriver eventDriver : eventDrivers) {
+			assertArrayEquals(canonicize(eventDriver, text), texts.get(eventDriver));
+		}
+		assertArrayEquals(text.toCharArray(), texts.get(plain));
+		// no two EventDrivers share an array they might change
+		List<char[]> arrays = new ArrayList<char[]>(texts.values());
+		for (int i = 0; i < arrays.size(); i++) {
+			for (int j = i + 1; j < arrays.size(); j++) {
+				assertNotSame(arrays.get(i), arrays.get(j));
+			}
+		}
+	}
+
+	@Test
+	public void testApplyKeepsOrder() throws CanonicizationException {
+		String text = "The Fox";
+		EventDriver lower = new CharacterEventDriver();
+		lower.addCanonicizer(new UnifyCase());
+		EventDriver plain = new CharacterEventDriver();
+		List<EventDriver> eventDrivers = new ArrayList<EventDriver>();
+		eventDrivers.add(lower);
+		eventDrivers.add(plain);
+
+		Map<EventDriver, char[]> texts = new CanonicizationPlan(eventDrivers).apply(text.toCharArray());
+		assertEquals(eventDrivers, new ArrayList<EventDriver>(texts.keySet()));
+		assertArrayEquals("the fox".toCharArray(), texts.get(lower));
+		assertArrayEquals(text.toCharArray(), texts.get(plain));
+	}
+}
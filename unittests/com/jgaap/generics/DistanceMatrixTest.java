@@ -0,0 +1,77 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jgaap.distances.CosineDistance;
+import com.jgaap.distances.ManhattanDistance;
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.util.DistanceMatrix;
+import com.jgaap.util.Document;
+
+/**
+ * Test DistanceMatrix
+ */
+public class DistanceMatrixTest {
+
+	private static List<Document> documents(EventDriver eventDriver, Random random, int count) throws EventGenerationException {
+		List<Document> documents = new ArrayList<Document>();
+		for (int i = 0; i < count; i++) {
+			char[] text = new char[200];
+			for (int j = 0; j < text.length; j++) {
+				text[j] = (char) ('a' + random.nextInt(10));
+			}
+			Document document = new Document();
+			document.addEventSet(eventDriver, eventDriver.createEventSet(text));
+			documents.add(document);
+		}
+		return documents;
+	}
+
+	@Test
+	public void testCompute() throws EventGenerationException, DistanceCalculationException {
+		EventDriver eventDriver = new CharacterEventDriver();
+		Random random = new Random(7);
+		List<Document> unknowns = documents(eventDriver, random, 40);
+		List<Document> knowns = documents(eventDriver, random, 70);
+		DistanceMatrix distanceMatrix = new DistanceMatrix();
+		DistanceFunction distance = new ManhattanDistance();
+		double[][] matrix = distanceMatrix.compute(unknowns, knowns, distance);
+		assertEquals(40 * 70, distanceMatrix.size());
+		for (int i = 0; i < unknowns.size(); i++) {
+			for (int j = 0; j < knowns.size(); j++) {
+				double expected = distance.distance(unknowns.get(i).getSparseHistogram(), knowns.get(j).getSparseHistogram());
+				assertEquals(expected, matrix[i][j], 0.0);
+			}
+			double[] row = distanceMatrix.row(unknowns.get(i), knowns, new ManhattanDistance());
+			for (int j = 0; j < knowns.size(); j++) {
+				assertEquals(matrix[i][j], row[j], 0.0);
+			}
+		}
+		assertEquals(40 * 70, distanceMatrix.size());
+		distanceMatrix.distance(unknowns.get(0), knowns.get(0), new CosineDistance());
+		assertEquals(40 * 70 + 1, distanceMatrix.size());
+	}
+}
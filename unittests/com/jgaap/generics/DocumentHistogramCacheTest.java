@@ -0,0 +1,59 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.util.Document;
+import com.jgaap.util.Event;
+import com.jgaap.util.EventMap;
+
+/**
+ * Test the histograms Document keeps for its EventSets
+ */
+public class DocumentHistogramCacheTest {
+
+	@Test
+	public void testCache() throws EventGenerationException {
+		EventDriver eventDriver = new CharacterEventDriver();
+		Document document = new Document();
+		document.addEventSet(eventDriver, eventDriver.createEventSet("aab".toCharArray()));
+		EventMap eventMap = document.getEventMap();
+		assertSame(eventMap, document.getEventMap());
+		assertSame(document.getSparseHistogram(), document.getSparseHistogram());
+		assertSame(document.getAbsoluteHistogram(), document.getAbsoluteHistogram());
+		Event a = new Event("a", eventDriver);
+		assertEquals(2.0 / 3.0, eventMap.relativeFrequency(a), 0.0);
+		assertEquals(2, document.getAbsoluteHistogram().absoluteFrequency(a));
+
+		document.addEventSet(eventDriver, eventDriver.createEventSet("abbb".toCharArray()));
+		assertNotSame(eventMap, document.getEventMap());
+		assertEquals(0.25, document.getEventMap().relativeFrequency(a), 0.0);
+		assertEquals(0.25, document.getSparseHistogram().relativeFrequency(a), 0.0);
+		assertEquals(1, document.getAbsoluteHistogram().absoluteFrequency(a));
+
+		document.clearEventSets();
+		assertEquals(0, document.getEventMap().uniqueEvents().size());
+		assertEquals(0, document.getSparseHistogram().size());
+	}
+}
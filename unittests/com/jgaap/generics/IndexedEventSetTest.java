@@ -0,0 +1,58 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jgaap.eventDrivers.NaiveWordEventDriver;
+import com.jgaap.util.Event;
+import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedEventSet;
+
+/**
+ * Test IndexedEventSet
+ */
+public class IndexedEventSetTest {
+	@Test
+	public void testInterning() {
+		EventDriver eventDriver = new NaiveWordEventDriver();
+		IndexedEventSet first = new IndexedEventSet(eventDriver.getEventDictionary());
+		IndexedEventSet second = new IndexedEventSet(eventDriver.getEventDictionary(), 1);
+		EventSet expected = new EventSet();
+		for (String word : "the cat saw the other cat".split(" ")) {
+			first.addEvent(word);
+			second.addEvent(new Event(word, eventDriver));
+			expected.addEvent(new Event(word, eventDriver));
+		}
+		assertEquals(6, first.size());
+		assertEquals(4, eventDriver.getEventDictionary().size());
+		assertEquals(first.idAt(0), first.idAt(3));
+		assertSame(first.eventAt(1), second.eventAt(5));
+		assertTrue(expected.equals(first));
+		assertTrue(first.equals(expected));
+		assertEquals(expected.hashCode(), second.hashCode());
+		assertEquals(expected.toString(), first.toString());
+		assertEquals(expected.subList(1, 3), first.subList(1, 3));
+		assertTrue(expected.subset(2, 10).equals(first.subset(2, 10)));
+		assertTrue(first.equals(IndexedEventSet.of(expected, eventDriver.getEventDictionary())));
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.util.Event;
+import com.jgaap.util.EventMap;
+import com.jgaap.util.EventSet;
+import com.jgaap.util.IndexedHistogram;
+
+/**
+ * Test IndexedHistogram
+ */
+public class IndexedHistogramTest {
+	@Test
+	public void testMatchesEventMap() throws EventGenerationException {
+		EventDriver eventDriver = new CharacterEventDriver();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			text.append((char) ('a' + (i * i) % 700));
+		}
+		EventSet eventSet = eventDriver.createEventSet(text.toString().toCharArray());
+		IndexedHistogram histogram = new IndexedHistogram(eventSet);
+		EventMap eventMap = new EventMap(eventSet);
+		assertEquals(eventMap.uniqueEvents(), histogram.uniqueEvents());
+		assertEquals(5000, histogram.getNTokens());
+		for (Event event : eventMap.uniqueEvents()) {
+			assertEquals(eventMap.relativeFrequency(event), histogram.relativeFrequency(event), 0.0);
+			assertEquals(eventMap.normalizedFrequency(event), histogram.normalizedFrequency(event), 0.0);
+		}
+		Event missing = new Event("missing", eventDriver);
+		assertFalse(histogram.contains(missing));
+		assertEquals(0, histogram.absoluteFrequency(missing));
+	}
+
+	@Test
+	public void testPlainEvents() {
+		IndexedHistogram histogram = new IndexedHistogram();
+		histogram.add(new Event("B", null));
+		histogram.add(new Event("A", null));
+		histogram.add(new Event("B", null));
+		histogram.add(new Event("B", null));
+		assertEquals(3, histogram.absoluteFrequency(new Event("B", null)));
+		assertEquals(0.25, histogram.relativeFrequency(new Event("A", null)), 0.0);
+		assertTrue(histogram.uniqueEvents().contains(new Event("A", null)));
+		assertEquals(2, histogram.uniqueEvents().size());
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jgaap.util.KendallTau;
+
+/**
+ * The merge sort counts must match counting every pair
+ */
+public class KendallTauTest {
+
+	@Test
+	public void testInversions() {
+		Random random = new Random(5);
+		for (int n = 0; n < 200; n += 7) {
+			int[] values = new int[n];
+			for (int i = 0; i < n; i++) {
+				values[i] = random.nextInt(1 + n / 3);
+			}
+			int[] copy = values.clone();
+			long expected = 0;
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					if (values[j] < values[i]) {
+						expected++;
+					}
+				}
+			}
+			assertEquals(expected, KendallTau.inversions(values));
+			assertArrayEquals(copy, values);
+		}
+	}
+
+	@Test
+	public void testConcordance() {
+		Random random = new Random(6);
+		for (int n = 0; n < 200; n += 7) {
+			int[] x = new int[n];
+			int[] y = new int[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = random.nextInt(1 + n / 4);
+				y[i] = random.nextInt(1 + n / 5);
+			}
+			long expected = 0;
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					expected += Integer.signum(x[i] - x[j]) * Integer.signum(y[i] - y[j]);
+				}
+			}
+			assertEquals(expected, KendallTau.concordance(x, y));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.jgaap.JGAAPConstants;
+import com.jgaap.backend.CSVIO;
+import com.jgaap.backend.Utils;
+import com.jgaap.distances.AngularSeparationDistance;
+import com.jgaap.distances.CosineDistance;
+import com.jgaap.distances.IntersectionDistance;
+import com.jgaap.distances.SoergleDistance;
+import com.jgaap.eventDrivers.CharacterNGramEventDriver;
+import com.jgaap.util.Document;
+import com.jgaap.util.LocalitySensitiveIndex;
+import com.jgaap.util.NearestNeighbors;
+import com.jgaap.util.SparseHistogram;
+
+/**
+ * Measures how many of the exact nearest neighbors the hashed candidates keep,
+ * using the known documents of every bundled AAAC problem as one reference set
+ * and the unknown documents as queries
+ */
+public class LocalitySensitiveIndexTest {
+
+	private static List<SparseHistogram> knowns;
+	private static List<SparseHistogram> unknowns;
+
+	@BeforeClass
+	public static void loadProblems() throws Exception {
+		EventDriver eventDriver = new CharacterNGramEventDriver();
+		eventDriver.setParameter("N", 3);
+		knowns = new ArrayList<SparseHistogram>();
+		unknowns = new ArrayList<SparseHistogram>();
+		for (char problem = 'A'; problem <= 'M'; problem++) {
+			String path = JGAAPConstants.JGAAP_RESOURCE_PACKAGE + "aaac/problem" + problem + "/load" + problem + ".csv";
+			for (Document document : Utils.getDocumentsFromCSV(CSVIO.readCSV(com.jgaap.JGAAP.class.getResourceAsStream(path)))) {
+				document.load();
+				document.addEventSet(eventDriver, eventDriver.createEventSet(document.getText()));
+				if (document.isAuthorKnown()) {
+					knowns.add(document.getSparseHistogram());
+				} else {
+					unknowns.add(document.getSparseHistogram());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the fraction of the exact k nearest knowns found among the hashed candidates
+	 */
+	private static double recall(DistanceFunction distance, int k) throws DistanceCalculationException {
+		LocalitySensitiveIndex index = new LocalitySensitiveIndex(knowns, distance.getHashFamily());
+		int found = 0;
+		int wanted = 0;
+		for (SparseHistogram unknown : unknowns) {
+			NearestNeighbors exact = new NearestNeighbors(k);
+			for (int i = 0; i < knowns.size(); i++) {
+				exact.offer(i, distance.distance(unknown, knowns.get(i)));
+			}
+			boolean[] candidate = new boolean[knowns.size()];
+			for (int i : index.candidates(unknown)) {
+				candidate[i] = true;
+			}
+			for (int i : exact.indices()) {
+				if (candidate[i]) {
+					found++;
+				}
+				wanted++;
+			}
+		}
+		return (double) found / wanted;
+	}
+
+	@Test
+	public void testRecall() throws DistanceCalculationException {
+		assertTrue(recall(new CosineDistance(), 1) >= 0.95);
+		assertTrue(recall(new CosineDistance(), 5) >= 0.95);
+		assertTrue(recall(new AngularSeparationDistance(), 1) >= 0.9);
+		assertTrue(recall(new IntersectionDistance(), 1) >= 0.95);
+		assertTrue(recall(new IntersectionDistance(), 5) >= 0.95);
+		assertTrue(recall(new SoergleDistance(), 1) >= 0.85);
+	}
+
+	@Test
+	public void testSelfCollides() {
+		for (LocalitySensitiveIndex.Family family : LocalitySensitiveIndex.Family.values()) {
+			LocalitySensitiveIndex index = new LocalitySensitiveIndex(knowns, family, 4, 16);
+			assertEquals(knowns.size(), index.size());
+			for (int i = 0; i < knowns.size(); i += 17) {
+				int[] candidates = index.candidates(knowns.get(i));
+				assertTrue(Arrays.binarySearch(candidates, i) >= 0);
+			}
+		}
+		LocalitySensitiveIndex single = new LocalitySensitiveIndex(knowns.subList(0, 1), LocalitySensitiveIndex.Family.MINHASH, 1, 1);
+		assertArrayEquals(new int[] { 0 }, single.candidates(knowns.get(0)));
+	}
+
+	/**
+	 * Two drivers alike but for the order they first saw their events give every event the same hash
+	 */
+	@Test
+	public void testHashesIgnoreInterningOrder() throws Exception {
+		String[] texts = { "the quick brown fox", "jumps over the lazy dog" };
+		EventDriver forward = new CharacterNGramEventDriver();
+		forward.setParameter("N", 3);
+		EventDriver backward = new CharacterNGramEventDriver();
+		backward.setParameter("N", 3);
+		SparseHistogram[] forwards = new SparseHistogram[texts.length];
+		SparseHistogram[] backwards = new SparseHistogram[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			forwards[i] = new SparseHistogram(forward.createEventSet(texts[i].toCharArray()));
+		}
+		for (int i = texts.length - 1; i >= 0; i--) {
+			backwards[i] = new SparseHistogram(backward.createEventSet(texts[i].toCharArray()));
+		}
+		for (int i = 0; i < texts.length; i++) {
+			Map<String, Long> hashes = new HashMap<String, Long>();
+			for (int j = 0; j < forwards[i].size(); j++) {
+				hashes.put(forwards[i].eventAt(j).toString(), forwards[i].getHashes()[j]);
+			}
+			assertEquals(hashes.size(), backwards[i].size());
+			for (int j = 0; j < backwards[i].size(); j++) {
+				assertEquals(hashes.get(backwards[i].eventAt(j).toString()), Long.valueOf(backwards[i].getHashes()[j]));
+			}
+		}
+		for (LocalitySensitiveIndex.Family family : LocalitySensitiveIndex.Family.values()) {
+			LocalitySensitiveIndex index = new LocalitySensitiveIndex(Arrays.asList(forwards), family, 4, 2);
+			LocalitySensitiveIndex other = new LocalitySensitiveIndex(Arrays.asList(backwards), family, 4, 2);
+			for (int i = 0; i < texts.length; i++) {
+				assertArrayEquals(index.candidates(forwards[i]), other.candidates(backwards[i]));
+			}
+		}
+	}
+}
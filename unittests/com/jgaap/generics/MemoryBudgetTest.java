@@ -0,0 +1,69 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jgaap.util.MemoryBudget;
+
+/**
+ * Accounts only draw on the budget beyond what they reserved and give everything back when closed
+ */
+public class MemoryBudgetTest {
+
+	@Test
+	public void testAdmission() {
+		MemoryBudget budget = new MemoryBudget(100);
+		MemoryBudget.Account first = budget.tryOpen(60);
+		assertNotNull(first);
+		assertNull(budget.tryOpen(50));
+		MemoryBudget.Account second = budget.open(50);
+		assertEquals(110, budget.getUsed());
+		first.close();
+		second.close();
+		assertEquals(0, budget.getUsed());
+		assertEquals(110, budget.getPeak());
+	}
+
+	@Test
+	public void testAccount() {
+		MemoryBudget budget = new MemoryBudget(100);
+		MemoryBudget.Account account = budget.open(40);
+		assertTrue(account.tryCharge(30));
+		assertEquals(40, budget.getUsed());
+		assertTrue(account.tryCharge(30));
+		assertEquals(60, budget.getUsed());
+		assertFalse(account.tryCharge(50));
+		assertEquals(60, account.getUsed());
+		account.charge(50);
+		assertEquals(110, budget.getUsed());
+		account.charge(-100);
+		assertEquals(40, budget.getUsed());
+		assertEquals(10, account.getUsed());
+		assertEquals(110, account.getPeak());
+		account.close();
+		account.close();
+		assertEquals(0, budget.getUsed());
+	}
+}
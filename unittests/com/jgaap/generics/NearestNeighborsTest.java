@@ -0,0 +1,81 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jgaap.distances.ManhattanDistance;
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.util.NearestNeighbors;
+import com.jgaap.util.Pair;
+import com.jgaap.util.SparseHistogram;
+
+/**
+ * Test NearestNeighbors and bounded distances
+ */
+public class NearestNeighborsTest {
+
+	@Test
+	public void testMatchesSort() {
+		Random random = new Random(3);
+		for (int k = 0; k < 12; k++) {
+			List<Pair<Integer, Double>> all = new ArrayList<Pair<Integer, Double>>();
+			NearestNeighbors nearest = new NearestNeighbors(k);
+			for (int i = 0; i < 50; i++) {
+				double distance = random.nextInt(10);
+				all.add(new Pair<Integer, Double>(i, distance, 2));
+				nearest.offer(i, distance);
+			}
+			Collections.sort(all);
+			int n = Math.min(k, all.size());
+			int[] expectedIndices = new int[n];
+			double[] expectedDistances = new double[n];
+			for (int i = 0; i < n; i++) {
+				expectedIndices[i] = all.get(i).getFirst();
+				expectedDistances[i] = all.get(i).getSecond();
+			}
+			assertEquals(n, nearest.size());
+			assertArrayEquals(expectedIndices, nearest.indices());
+			assertArrayEquals(expectedDistances, nearest.distances(), 0.0);
+			if (k > 0) {
+				assertEquals(expectedDistances[n - 1], nearest.bound(), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testBoundedDistance() throws EventGenerationException, DistanceCalculationException {
+		EventDriver eventDriver = new CharacterEventDriver();
+		SparseHistogram first = new SparseHistogram(eventDriver.createEventSet("the quick brown fox".toCharArray()));
+		SparseHistogram second = new SparseHistogram(eventDriver.createEventSet("jumps over the lazy dog".toCharArray()));
+		DistanceFunction distance = new ManhattanDistance();
+		assertTrue(distance.isBounded());
+		double exact = distance.distance(first, second);
+		assertEquals(exact, distance.distance(first, second, exact), 0.0);
+		assertTrue(distance.distance(first, second, exact / 2) > exact / 2);
+	}
+}
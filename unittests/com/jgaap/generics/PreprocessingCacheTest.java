@@ -0,0 +1,155 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jgaap.canonicizers.UnifyCase;
+import com.jgaap.eventDrivers.CharacterNGramEventDriver;
+import com.jgaap.languages.English;
+import com.jgaap.util.EventSet;
+import com.jgaap.util.PreprocessingCache;
+
+/**
+ * Cached text and EventSets come back unchanged from memory and from disk,
+ * and damaged files are misses
+ */
+public class PreprocessingCacheTest {
+
+	private File directory;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("jgaap-cache").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private static List<File> files(File directory) {
+		List<File> files = new ArrayList<File>();
+		File[] children = directory.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					files.addAll(files(child));
+				} else {
+					files.add(child);
+				}
+			}
+		}
+		return files;
+	}
+
+	@Test
+	public void testKeys() {
+		String digest = PreprocessingCache.digest("The quick brown fox".toCharArray());
+		assertEquals(digest, PreprocessingCache.digest("The quick brown fox".toCharArray()));
+		assertFalse(digest.equals(PreprocessingCache.digest("The quick brown fix".toCharArray())));
+		List<Canonicizer> none = Collections.emptyList();
+		List<Canonicizer> unifyCase = Collections.<Canonicizer> singletonList(new UnifyCase());
+		String textKey = PreprocessingCache.textKey(digest, new English(), none);
+		assertFalse(textKey.equals(PreprocessingCache.textKey(digest, new English(), unifyCase)));
+		EventDriver bigrams = new CharacterNGramEventDriver();
+		bigrams.setParameter("N", 2);
+		EventDriver trigrams = new CharacterNGramEventDriver();
+		trigrams.setParameter("N", 3);
+		assertFalse(PreprocessingCache.eventSetKey(textKey, bigrams).equals(PreprocessingCache.eventSetKey(textKey, trigrams)));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		EventDriver eventDriver = new CharacterNGramEventDriver();
+		EventSet eventSet = eventDriver.createEventSet("the cat sat on the mat".toCharArray());
+		PreprocessingCache writer = new PreprocessingCache(1 << 20, directory, 1 << 20);
+		writer.putText("text", "the cat sat on the mat".toCharArray());
+		writer.putEventSet("events", eventDriver, eventSet);
+		assertArrayEquals("the cat sat on the mat".toCharArray(), writer.getText("text"));
+		assertEquals(eventSet, writer.getEventSet("events", eventDriver));
+		assertNull(writer.getText("events"));
+		assertNull(writer.getEventSet("missing", eventDriver));
+		assertEquals(2, files(directory).size());
+
+		PreprocessingCache reader = new PreprocessingCache(0, directory, 1 << 20);
+		assertArrayEquals("the cat sat on the mat".toCharArray(), reader.getText("text"));
+		assertEquals(eventSet, reader.getEventSet("events", eventDriver));
+		assertEquals(2, reader.getHitCount());
+		assertEquals(0, reader.getMissCount());
+	}
+
+	@Test
+	public void testCorruption() throws Exception {
+		PreprocessingCache writer = new PreprocessingCache(0, directory, 1 << 20);
+		writer.putText("text", "the cat sat on the mat".toCharArray());
+		File file = files(directory).get(0);
+		RandomAccessFile access = new RandomAccessFile(file, "rw");
+		try {
+			access.seek(access.length() / 2);
+			int b = access.read();
+			access.seek(access.length() / 2);
+			access.write(b ^ 0xFF);
+		} finally {
+			access.close();
+		}
+		assertNull(writer.getText("text"));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		char[] text = new char[1000];
+		PreprocessingCache cache = new PreprocessingCache(0, directory, 10000);
+		for (int i = 0; i < 30; i++) {
+			cache.putText("text" + i, text);
+		}
+		long size = 0;
+		for (File file : files(directory)) {
+			size += file.length();
+		}
+		assertTrue(size <= 10000);
+		assertTrue(files(directory).size() < 30);
+		assertArrayEquals(text, cache.getText("text29"));
+	}
+}
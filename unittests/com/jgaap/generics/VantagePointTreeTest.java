@@ -0,0 +1,93 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jgaap.distances.HellingerDistance;
+import com.jgaap.distances.HistogramDistance;
+import com.jgaap.distances.ManhattanDistance;
+import com.jgaap.distances.MatusitaDistance;
+import com.jgaap.distances.NominalKSDistance;
+import com.jgaap.eventDrivers.CharacterEventDriver;
+import com.jgaap.util.NearestNeighbors;
+import com.jgaap.util.SparseHistogram;
+import com.jgaap.util.VantagePointTree;
+
+/**
+ * The tree must find exactly what a linear scan finds
+ */
+public class VantagePointTreeTest {
+
+	private static List<SparseHistogram> histograms(EventDriver eventDriver, Random random, int count) throws EventGenerationException {
+		List<SparseHistogram> histograms = new ArrayList<SparseHistogram>();
+		for (int i = 0; i < count; i++) {
+			char[] text = new char[50 + random.nextInt(200)];
+			int alphabet = 3 + random.nextInt(12);
+			for (int j = 0; j < text.length; j++) {
+				text[j] = (char) ('a' + random.nextInt(alphabet));
+			}
+			histograms.add(new SparseHistogram(eventDriver.createEventSet(text)));
+		}
+		return histograms;
+	}
+
+	@Test
+	public void testNearest() throws EventGenerationException, DistanceCalculationException {
+		EventDriver eventDriver = new CharacterEventDriver();
+		Random random = new Random(11);
+		List<SparseHistogram> knowns = histograms(eventDriver, random, 300);
+		List<SparseHistogram> unknowns = histograms(eventDriver, random, 20);
+		DistanceFunction[] distances = { new ManhattanDistance(), new NominalKSDistance(), new HellingerDistance(), new MatusitaDistance() };
+		boolean[] excluded = new boolean[knowns.size()];
+		for (int i = 0; i < excluded.length; i += 7) {
+			excluded[i] = true;
+		}
+		for (DistanceFunction distance : distances) {
+			VantagePointTree tree = new VantagePointTree(knowns, distance);
+			for (SparseHistogram unknown : unknowns) {
+				for (int k : new int[] { 1, 5, 10 }) {
+					NearestNeighbors scan = new NearestNeighbors(k);
+					NearestNeighbors scanExcluding = new NearestNeighbors(k);
+					for (int i = 0; i < knowns.size(); i++) {
+						double current = distance.distance(unknown, knowns.get(i));
+						scan.offer(i, current);
+						if (!excluded[i]) {
+							scanExcluding.offer(i, current);
+						}
+					}
+					assertArrayEquals(scan.indices(), tree.nearest(unknown, k, null).indices());
+					assertArrayEquals(scanExcluding.indices(), tree.nearest(unknown, k, excluded).indices());
+				}
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotMetric() throws DistanceCalculationException {
+		assertFalse(new HistogramDistance().isMetric());
+		new VantagePointTree(new ArrayList<SparseHistogram>(), new HistogramDistance());
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * JGAAP -- a graphical program for stylometric authorship attribution
+ * Copyright (C) 2009,2011 by Patrick Juola
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.jgaap.generics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+
+import org.junit.Test;
+
+import com.jgaap.util.WorkPool;
+
+/**
+ * Work on the pool waiting for other work on the pool must not starve it
+ */
+public class WorkPoolTest {
+
+	@Test(timeout = 10000)
+	public void testNestedTake() throws Exception {
+		final WorkPool workPool = new WorkPool(1, false);
+		assertSame(workPool.getPool(), workPool.getLoadingExecutor());
+		CompletionService<Integer> outer = new ExecutorCompletionService<Integer>(workPool.getPool());
+		for (int i = 0; i < 4; i++) {
+			final int base = i * 10;
+			outer.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					CompletionService<Integer> inner = new ExecutorCompletionService<Integer>(workPool.getPool());
+					for (int j = 0; j < 10; j++) {
+						final int value = base + j;
+						inner.submit(new Callable<Integer>() {
+							@Override
+							public Integer call() {
+								return value;
+							}
+						});
+					}
+					int sum = 0;
+					for (int j = 0; j < 10; j++) {
+						sum += WorkPool.take(inner).get();
+					}
+					return sum;
+				}
+			});
+		}
+		int total = 0;
+		for (int i = 0; i < 4; i++) {
+			total += WorkPool.take(outer).get();
+		}
+		assertEquals(39 * 40 / 2, total);
+		assertEquals(1, workPool.getParallelism());
+	}
+}